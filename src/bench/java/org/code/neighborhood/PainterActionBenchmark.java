@@ -0,0 +1,109 @@
+package org.code.neighborhood;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Cost of the core painter actions on a headless world with logging off. With the GC profiler,
+// gc.alloc.rate.norm should be about 0 B/op for every benchmark:
+//   java -cp target/benchmarks.jar org.code.neighborhood.PainterActionBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dneighborhood.headless=true", "-Dneighborhood.log=off"})
+@State(Scope.Thread)
+public class PainterActionBenchmark {
+  private Painter painter;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    // The top row of the default map is open and has no paint buckets
+    painter = new Painter(0, 0, "east", Integer.MAX_VALUE);
+  }
+
+  // Steps east and back, turning around at each end
+  @Benchmark
+  public int moveAndTurn() {
+    painter.move();
+    painter.turnLeft();
+    painter.turnLeft();
+    painter.move();
+    painter.turnLeft();
+    painter.turnLeft();
+    return painter.getX();
+  }
+
+  @Benchmark
+  public int paintColor() {
+    painter.paint(Color.RED);
+    return painter.getMyPaint();
+  }
+
+  @Benchmark
+  public int paintColorName() {
+    painter.paint("Red");
+    return painter.getMyPaint();
+  }
+
+  // Paints the whole top row one square at a time, ending at the far end facing back
+  @Benchmark
+  public int paintRowStepwise() {
+    for (int i = 0; i < 9; i++) {
+      painter.paint(Color.RED);
+      painter.move();
+    }
+    painter.paint(Color.RED);
+    painter.turnLeft();
+    painter.turnLeft();
+    return painter.getX();
+  }
+
+  // Paints the same row as one bulk action
+  @Benchmark
+  public int paintRowLine() {
+    painter.paintLine(Color.RED, 10);
+    painter.turnLeft();
+    painter.turnLeft();
+    return painter.getX();
+  }
+
+  // The loop that dominates student programs: walk to the far wall, then turn around
+  @Benchmark
+  public int walkToWall() {
+    while (painter.canMove()) {
+      painter.move();
+    }
+    painter.turnLeft();
+    painter.turnLeft();
+    return painter.getX();
+  }
+
+  @Benchmark
+  public boolean canMove() {
+    return painter.canMove() & painter.canMove("left");
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+        .include(PainterActionBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,60 @@
+package org.code.neighborhood;
+
+import java.util.concurrent.TimeUnit;
+import org.code.neighborhood.support.EventLog;
+import org.code.neighborhood.support.WorldRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Throughput of a whole student-style program on a headless world: a painter is created on the
+// default map, walks its border painting every square and checking where it can go, as a
+// student solution would. With log=counting every action also goes through the event log to a
+// sink that only counts them.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dneighborhood.headless=true", "-Dneighborhood.log=off"})
+@State(Scope.Benchmark)
+public class PainterProgramBenchmark {
+  @Param({"off", "counting"})
+  String log;
+
+  private long loggedEvents;
+
+  @Setup
+  public void setUp() {
+    if (log.equals("counting")) {
+      EventLog.get().addSink(event -> loggedEvents++);
+    }
+  }
+
+  // Runs the program once on a fresh copy of the map and returns the number of actions it took
+  @Benchmark
+  public int walkBorder() {
+    WorldRegistry.reset();
+    Painter painter = new Painter(0, 0, "east", 1000);
+    int actions = 1;
+    for (int side = 0; side < 4; side++) {
+      while (painter.canMove()) {
+        painter.paint("green");
+        painter.move();
+        actions += 3;
+      }
+      painter.turnLeft();
+      painter.turnLeft();
+      painter.turnLeft();
+      actions += 4;
+    }
+    return actions;
+  }
+}
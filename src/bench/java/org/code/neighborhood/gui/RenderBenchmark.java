@@ -0,0 +1,164 @@
+package org.code.neighborhood.gui;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.code.neighborhood.Painter;
+import org.code.neighborhood.support.Direction;
+import org.code.neighborhood.support.EventLog;
+import org.code.neighborhood.support.Grid;
+import org.code.neighborhood.support.PainterEvent;
+import org.code.neighborhood.support.TraceRecorder;
+import org.code.neighborhood.support.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cost of PainterVisualizer.paintComponent drawing the default map into an offscreen image:
+// a full frame, the single square redrawn after a painter action, and a full frame of a map
+// painted in stripes of hex colors. offscreenLarge draws a 256 x 256 world through
+// OffscreenRenderer with one render thread or several, and gifExport turns a 200 step trace on
+// the default map into a GIF through AnimationExporter.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dneighborhood.log=off"})
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+  private PainterVisualizer visualizer;
+  private BufferedImage image;
+  private Graphics2D graphics;
+
+  @Setup
+  public void setUp() {
+    Painter painter = new Painter(0, 0, "east", 0);
+    visualizer = new PainterVisualizer();
+    visualizer.addPainter(painter);
+    int width = painter.getGrid().getWidth() * PainterAssets.TILE_SIZE;
+    int height = painter.getGrid().getHeight() * PainterAssets.TILE_SIZE;
+    visualizer.setSize(width, height);
+    image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    graphics = image.createGraphics();
+  }
+
+  @TearDown
+  public void tearDown() {
+    graphics.dispose();
+  }
+
+  // A visualizer whose map has every row painted, with the color changing every other row
+  @State(Scope.Benchmark)
+  public static class Painted {
+    PainterVisualizer visualizer;
+
+    @Setup
+    public void setUp() {
+      visualizer = new PainterVisualizer();
+      Grid grid = new Painter(0, 0, "east", 0).getGrid();
+      int width = grid.getWidth();
+      int height = grid.getHeight();
+      for (int y = 0; y < height; y++) {
+        Painter painter = new Painter(0, y, "east", width);
+        visualizer.addPainter(painter);
+        painter.paintLine(y % 4 < 2 ? "#3366cc" : "rgb(240, 160, 32)", width);
+      }
+      visualizer.setSize(width * PainterAssets.TILE_SIZE, height * PainterAssets.TILE_SIZE);
+      visualizer.skipToEnd();
+    }
+  }
+
+  // An empty 256 x 256 world drawn 8 pixels to a square
+  @State(Scope.Benchmark)
+  public static class Offscreen {
+    @Param({"1", "4"})
+    int threads;
+
+    World world;
+    OffscreenRenderer renderer;
+
+    @Setup
+    public void setUp() {
+      world = new World(256);
+      renderer = new OffscreenRenderer(8, threads, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+      renderer.close();
+    }
+  }
+
+  // A painter walking along the top row of the default map again and again, painting as it goes
+  @State(Scope.Benchmark)
+  public static class Recorded {
+    AnimationExporter exporter;
+    Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+      Grid grid = new Painter(0, 0, "east", 0).getGrid();
+      int width = grid.getWidth();
+      EventLog log = new EventLog();
+      TraceRecorder recorder = TraceRecorder.start(log);
+      log.log(1, PainterEvent.Kind.CREATE, 0, 0, Direction.EAST, 0, 0, false);
+      for (int step = 1; step < 100; step++) {
+        int x = step % width;
+        log.log(1, PainterEvent.Kind.MOVE, x, 0, Direction.EAST, 0, 0, false);
+        log.log(1, PainterEvent.Kind.PAINT, x, 0, Direction.EAST,
+            step % 2 == 0 ? 0xFF3366CC : 0xFFF0A020, 0, false);
+      }
+      exporter = new AnimationExporter(grid, recorder.stop());
+      file = Files.createTempFile("render-benchmark", ".gif");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Benchmark
+  public BufferedImage fullFrame() {
+    graphics.setClip(null);
+    visualizer.paintComponent(graphics);
+    return image;
+  }
+
+  @Benchmark
+  public BufferedImage paintedFrame(Painted painted) {
+    graphics.setClip(null);
+    painted.visualizer.paintComponent(graphics);
+    return image;
+  }
+
+  @Benchmark
+  public BufferedImage oneSquare() {
+    int tileSize = PainterAssets.TILE_SIZE;
+    graphics.setClip(tileSize, tileSize, tileSize, tileSize);
+    visualizer.paintComponent(graphics);
+    return image;
+  }
+
+  @Benchmark
+  public BufferedImage offscreenLarge(Offscreen offscreen) {
+    return offscreen.renderer.render(offscreen.world);
+  }
+
+  @Benchmark
+  public int gifExport(Recorded recorded) throws IOException {
+    return recorded.exporter.writeGif(recorded.file);
+  }
+}
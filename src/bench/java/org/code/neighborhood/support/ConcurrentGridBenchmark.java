@@ -0,0 +1,84 @@
+package org.code.neighborhood.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Scaling of square updates on one shared grid. A fixed amount of work, painting every square
+// and taking paint from every bucket, is split into horizontal bands across the given number of
+// threads; with per-region locking the time should fall close to 1/threads up to the core count.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentGridBenchmark {
+  private static final int SIZE = 1024;
+
+  @Param({"1", "2", "4", "8"})
+  int threads;
+
+  private Grid grid;
+  private ExecutorService executor;
+  private List<Callable<Integer>> bands;
+
+  @Setup
+  public void setUp() {
+    grid = new Grid(SIZE, SIZE);
+    for (int y = 0; y < SIZE; y++) {
+      for (int x = 0; x < SIZE; x++) {
+        grid.initSquare(x, y, 1, 0, (x & 7) == 0 ? 30_000 : 0);
+      }
+    }
+    executor = Executors.newFixedThreadPool(threads);
+    bands = new ArrayList<>();
+    for (int band = 0; band < threads; band++) {
+      int fromY = band * SIZE / threads;
+      int toY = (band + 1) * SIZE / threads;
+      bands.add(() -> {
+        int taken = 0;
+        for (int y = fromY; y < toY; y++) {
+          for (int x = 0; x < SIZE; x++) {
+            grid.setColor(x, y, 0xFF00FF00);
+            if (grid.takePaint(x, y)) {
+              taken++;
+            }
+          }
+        }
+        return taken;
+      });
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  public int updateWholeGrid() throws InterruptedException, ExecutionException {
+    int taken = 0;
+    for (Future<Integer> band : executor.invokeAll(bands)) {
+      taken += band.get();
+    }
+    return taken;
+  }
+}
@@ -0,0 +1,154 @@
+package org.code.neighborhood.support;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Random-access throughput of validLocation, canMove and getSquare for the legacy
+// object-per-square layout, flat array storage and chunked storage. Each invocation visits
+// ACCESSES random squares.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GridAccessBenchmark {
+  private static final int ACCESSES = 4096;
+
+  @Param({"64", "1024"})
+  int size;
+
+  private Grid grid;
+  private Grid chunkedGrid;
+  private LegacyGrid legacyGrid;
+  private int[] xs;
+  private int[] ys;
+  private Direction[] directions;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    grid = new Grid(size, size, new ArrayGridStorage(size, size));
+    chunkedGrid = new Grid(size, size, new ChunkedGridStorage(size, size));
+    legacyGrid = new LegacyGrid(size, size);
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        int tileType = random.nextInt(10) == 0 ? 0 : 1;
+        int value = random.nextInt(20) == 0 ? 3 : 0;
+        grid.initSquare(x, y, tileType, 0, value);
+        chunkedGrid.initSquare(x, y, tileType, 0, value);
+        legacyGrid.initSquare(x, y, tileType, 0, value);
+      }
+    }
+    xs = new int[ACCESSES];
+    ys = new int[ACCESSES];
+    directions = new Direction[ACCESSES];
+    for (int i = 0; i < ACCESSES; i++) {
+      xs[i] = random.nextInt(size);
+      ys[i] = random.nextInt(size);
+      directions[i] = Direction.values()[random.nextInt(4)];
+    }
+  }
+
+  @Benchmark
+  public int validLocationFlat() {
+    int passable = 0;
+    for (int i = 0; i < ACCESSES; i++) {
+      if (grid.validLocation(xs[i], ys[i])) {
+        passable++;
+      }
+    }
+    return passable;
+  }
+
+  @Benchmark
+  public int validLocationLegacy() {
+    int passable = 0;
+    for (int i = 0; i < ACCESSES; i++) {
+      if (legacyGrid.validLocation(xs[i], ys[i])) {
+        passable++;
+      }
+    }
+    return passable;
+  }
+
+  @Benchmark
+  public int validLocationChunked() {
+    int passable = 0;
+    for (int i = 0; i < ACCESSES; i++) {
+      if (chunkedGrid.validLocation(xs[i], ys[i])) {
+        passable++;
+      }
+    }
+    return passable;
+  }
+
+  // The check behind a painter's canMove: one neighbor mask read per square
+  @Benchmark
+  public int canMoveFlat() {
+    int open = 0;
+    for (int i = 0; i < ACCESSES; i++) {
+      if (grid.canMove(xs[i], ys[i], directions[i])) {
+        open++;
+      }
+    }
+    return open;
+  }
+
+  // The same check made the old way, by validating the square a step away
+  @Benchmark
+  public int canMoveByLocation() {
+    int open = 0;
+    for (int i = 0; i < ACCESSES; i++) {
+      Direction direction = directions[i];
+      if (grid.validLocation(xs[i] + direction.getDx(), ys[i] + direction.getDy())) {
+        open++;
+      }
+    }
+    return open;
+  }
+
+  @Benchmark
+  public int getSquareFlat() {
+    int buckets = 0;
+    for (int i = 0; i < ACCESSES; i++) {
+      if (grid.getSquare(xs[i], ys[i]).containsPaint()) {
+        buckets++;
+      }
+    }
+    return buckets;
+  }
+
+  @Benchmark
+  public int getSquareChunked() {
+    int buckets = 0;
+    for (int i = 0; i < ACCESSES; i++) {
+      if (chunkedGrid.getSquare(xs[i], ys[i]).containsPaint()) {
+        buckets++;
+      }
+    }
+    return buckets;
+  }
+
+  @Benchmark
+  public int getSquareLegacy() {
+    int buckets = 0;
+    for (int i = 0; i < ACCESSES; i++) {
+      if (legacyGrid.getSquare(xs[i], ys[i]).containsPaint()) {
+        buckets++;
+      }
+    }
+    return buckets;
+  }
+}
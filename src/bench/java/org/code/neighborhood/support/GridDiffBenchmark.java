@@ -0,0 +1,78 @@
+package org.code.neighborhood.support;
+
+import java.awt.Color;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Grading one painted grid against an expected painting: walking both grids with getSquare and
+// comparing Colors, against compiling the grid into a GridPattern and diffing the bitsets, with
+// the target compiled once up front. The grids differ in one square out of every hundred.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GridDiffBenchmark {
+  private static final Color[] PALETTE = {Color.RED, Color.GREEN, Color.BLUE, Color.ORANGE};
+
+  @Param({"10", "100", "512"})
+  int size;
+
+  private Grid expected;
+  private Grid actual;
+  private GridPattern target;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(size);
+    expected = new GridFactory().createGridFromString(MapFixtures.json(size));
+    actual = expected.copy();
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        int argb = PALETTE[random.nextInt(PALETTE.length)].getRGB();
+        expected.setColor(x, y, argb);
+        actual.setColor(x, y, random.nextInt(100) == 0 ? Color.BLACK.getRGB() : argb);
+      }
+    }
+    target = GridPattern.of(expected);
+  }
+
+  @Benchmark
+  public int squareBySquare() {
+    int mismatches = 0;
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        GridSquare want = expected.getSquare(x, y);
+        GridSquare got = actual.getSquare(x, y);
+        if (!Objects.equals(want.getColor(), got.getColor())
+            || want.containsPaint() != got.containsPaint()) {
+          mismatches++;
+        }
+      }
+    }
+    return mismatches;
+  }
+
+  @Benchmark
+  public int patternDiff() {
+    return target.diff(actual).getMismatchCount();
+  }
+
+  @Benchmark
+  public boolean patternMatches() {
+    return target.matches(actual);
+  }
+}
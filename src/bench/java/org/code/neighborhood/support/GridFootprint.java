@@ -0,0 +1,53 @@
+package org.code.neighborhood.support;
+
+// Prints the heap used per square by the legacy object-per-square layout and by flat array
+// storage, and the heap used by an empty chunked world.
+// Run with: java -cp target/benchmarks.jar org.code.neighborhood.support.GridFootprint
+public class GridFootprint {
+  private static final int SIZE = 1024;
+  private static final int EMPTY_WORLD_SIZE = 4096;
+
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : SIZE;
+    long cells = (long) size * size;
+
+    long before = usedMemory();
+    LegacyGrid legacyGrid = new LegacyGrid(size, size);
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        legacyGrid.initSquare(x, y, 1, 0, 0);
+      }
+    }
+    long legacyBytes = usedMemory() - before;
+
+    before = usedMemory();
+    Grid grid = new Grid(size, size, new ArrayGridStorage(size, size));
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        grid.initSquare(x, y, 1, 0, 0);
+      }
+    }
+    long flatBytes = usedMemory() - before;
+
+    before = usedMemory();
+    Grid emptyWorld = new GridFactory().createEmptyGrid(EMPTY_WORLD_SIZE);
+    long emptyWorldBytes = usedMemory() - before;
+
+    System.out.printf("%dx%d grid%n", size, size);
+    System.out.printf("legacy: %.1f bytes per square%n", (double) legacyBytes / cells);
+    System.out.printf("flat:   %.1f bytes per square%n", (double) flatBytes / cells);
+    System.out.printf("empty %dx%d chunked world: %d KB%n",
+        EMPTY_WORLD_SIZE, EMPTY_WORLD_SIZE, emptyWorldBytes / 1024);
+    // Keep every grid reachable until all measurements are taken
+    System.out.println(legacyGrid.validLocation(0, 0) && grid.validLocation(0, 0)
+        && emptyWorld.validLocation(0, 0));
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
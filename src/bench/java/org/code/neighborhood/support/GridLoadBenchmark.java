@@ -0,0 +1,72 @@
+package org.code.neighborhood.support;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Load time of the streaming map loader against the old tree parser and compiled .nbmap maps. Run with -prof gc to
+// compare the bytes allocated per load (gc.alloc.rate.norm).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class GridLoadBenchmark {
+  @Param({"64", "512", "1024"})
+  int size;
+
+  private String json;
+  private Path file;
+  private Path binaryFile;
+  private GridFactory gridFactory;
+
+  @Setup
+  public void setUp() throws IOException {
+    json = MapFixtures.json(size);
+    file = MapFixtures.jsonFile(size);
+    binaryFile = Files.createTempFile("map-" + size + "-", BinaryMap.EXTENSION);
+    binaryFile.toFile().deleteOnExit();
+    BinaryMap.compile(file, binaryFile);
+    gridFactory = new GridFactory();
+  }
+
+  @Benchmark
+  public Grid treeFromString() {
+    return TreeGridParser.parse(json);
+  }
+
+  @Benchmark
+  public Grid streamingFromString() {
+    return gridFactory.createGridFromString(json);
+  }
+
+  @Benchmark
+  public Grid treeFromFile() throws IOException {
+    return TreeGridParser.parse(Files.readString(file));
+  }
+
+  @Benchmark
+  public Grid streamingFromFile() throws IOException {
+    return gridFactory.createGridFromFile(file);
+  }
+
+  // Opening a compiled map only maps the file; touching one square pages in a single page
+  @Benchmark
+  public boolean binaryMapFromFile() throws IOException {
+    Grid grid = gridFactory.createGridFromFile(binaryFile);
+    return grid.validLocation(size / 2, size / 2);
+  }
+}
@@ -0,0 +1,65 @@
+package org.code.neighborhood.support;
+
+import java.awt.Color;
+
+// The object-per-square grid layout that Grid used before its squares moved into flat arrays.
+// Kept only so benchmarks can compare the two layouts.
+class LegacyGrid {
+  private enum SquareType {
+    WALL,
+    OPEN,
+    START,
+    FINISH,
+    OBSTACLE,
+    STARTANDFINISH,
+    UNKNOWN
+  }
+
+  static class Square {
+    private Color color;
+    private boolean passable;
+    private int paintCount;
+    private int assetId;
+    private SquareType squareType;
+
+    Square(int tileType, int assetId, int value) {
+      this.squareType = tileType >= 0 && tileType <= 5 ? SquareType.values()[tileType] : SquareType.UNKNOWN;
+      this.passable = tileType == 1 || tileType == 2 || tileType == 3 || tileType == 5;
+      this.assetId = assetId;
+      this.paintCount = value;
+    }
+
+    boolean isPassable() {
+      return this.passable;
+    }
+
+    boolean containsPaint() {
+      return this.paintCount > 0;
+    }
+  }
+
+  private final Square[][] grid;
+  private final int width;
+  private final int height;
+
+  LegacyGrid(int width, int height) {
+    this.grid = new Square[height][width];
+    this.width = width;
+    this.height = height;
+  }
+
+  void initSquare(int x, int y, int tileType, int assetId, int value) {
+    this.grid[y][x] = new Square(tileType, assetId, value);
+  }
+
+  boolean validLocation(int x, int y) {
+    return x >= 0 && y >= 0 && x < width && y < height && this.grid[y][x].isPassable();
+  }
+
+  Square getSquare(int x, int y) {
+    if (x >= 0 && y >= 0 && x < width && y < height) {
+      return this.grid[y][x];
+    }
+    throw new NeighborhoodRuntimeException(ExceptionKeys.GET_SQUARE_FAILED);
+  }
+}
@@ -0,0 +1,43 @@
+package org.code.neighborhood.support;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+// Generates map descriptions in the JSON schema read by GridFactory for benchmarks
+final class MapFixtures {
+  private MapFixtures() {}
+
+  // A size x size map with a border of walls, scattered obstacles and paint buckets
+  static String json(int size) {
+    Random random = new Random(size);
+    StringBuilder json = new StringBuilder(size * size * 40);
+    json.append('[');
+    for (int y = 0; y < size; y++) {
+      json.append(y == 0 ? "[" : ",[");
+      for (int x = 0; x < size; x++) {
+        boolean border = x == 0 || y == 0 || x == size - 1 || y == size - 1;
+        int tileType = border ? 0 : random.nextInt(12) == 0 ? 4 : 1;
+        int value = tileType == 1 && random.nextInt(25) == 0 ? 1 + random.nextInt(5) : 0;
+        if (x > 0) {
+          json.append(',');
+        }
+        json.append("{\"tileType\":").append(tileType)
+            .append(",\"value\":").append(value)
+            .append(",\"assetId\":").append(tileType == 1 ? 0 : 7)
+            .append('}');
+      }
+      json.append(']');
+    }
+    json.append(']');
+    return json.toString();
+  }
+
+  static Path jsonFile(int size) throws IOException {
+    Path file = Files.createTempFile("map-" + size + "-", ".json");
+    file.toFile().deleteOnExit();
+    Files.writeString(file, json(size));
+    return file;
+  }
+}
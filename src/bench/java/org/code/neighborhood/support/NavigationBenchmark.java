@@ -0,0 +1,90 @@
+package org.code.neighborhood.support;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cost of finding a path to one target from QUERIES random squares, as a hint generator does:
+// a fresh breadth-first search per query, A* per query, and reading each path off the target's
+// cached distance field
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NavigationBenchmark {
+  private static final int QUERIES = 16;
+
+  @Param({"64", "512"})
+  int size;
+
+  private Grid grid;
+  // Has its regions labelled but no distance fields
+  private Navigator aStarNavigator;
+  private int[] xs;
+  private int[] ys;
+  private int targetX;
+  private int targetY;
+
+  @Setup
+  public void setUp() {
+    grid = new GridFactory().createGridFromString(MapFixtures.json(size));
+    Random random = new Random(size);
+    Navigator navigator = grid.getNavigator();
+    do {
+      targetX = 1 + random.nextInt(size - 2);
+      targetY = 1 + random.nextInt(size - 2);
+    } while (!grid.validLocation(targetX, targetY));
+    xs = new int[QUERIES];
+    ys = new int[QUERIES];
+    for (int i = 0; i < QUERIES; i++) {
+      do {
+        xs[i] = 1 + random.nextInt(size - 2);
+        ys[i] = 1 + random.nextInt(size - 2);
+      } while (!navigator.isReachable(xs[i], ys[i], targetX, targetY));
+    }
+    navigator.distancesTo(targetX, targetY);
+    aStarNavigator = new Navigator(grid);
+    aStarNavigator.isReachable(targetX, targetY, targetX, targetY);
+  }
+
+  @Benchmark
+  public int searchPerQuery() {
+    int steps = 0;
+    for (int i = 0; i < QUERIES; i++) {
+      // Building a new navigator discards the cached field
+      steps += new Navigator(grid).distancesTo(targetX, targetY).getDistance(xs[i], ys[i]);
+    }
+    return steps;
+  }
+
+  @Benchmark
+  public int aStarPerQuery() {
+    int steps = 0;
+    for (int i = 0; i < QUERIES; i++) {
+      steps += aStarNavigator.path(xs[i], ys[i], targetX, targetY).length;
+    }
+    return steps;
+  }
+
+  @Benchmark
+  public int cachedField() {
+    int steps = 0;
+    Navigator navigator = grid.getNavigator();
+    for (int i = 0; i < QUERIES; i++) {
+      steps += navigator.path(xs[i], ys[i], targetX, targetY).length;
+    }
+    return steps;
+  }
+}
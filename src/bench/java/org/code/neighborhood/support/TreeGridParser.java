@@ -0,0 +1,44 @@
+package org.code.neighborhood.support;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+// The tree-based map parser GridFactory used before it switched to streaming: the whole
+// document is parsed into Gson JsonArray/JsonObject nodes before any square is built.
+// Kept only so benchmarks can compare the two loaders.
+class TreeGridParser {
+  private TreeGridParser() {}
+
+  static Grid parse(String description) {
+    try {
+      JsonArray gridSquares = JsonParser.parseString(description).getAsJsonArray();
+      int height = gridSquares.size();
+      if (height == 0) {
+        throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
+      }
+      int width = gridSquares.get(0).getAsJsonArray().size();
+      if (width != height) {
+        throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
+      }
+
+      Grid grid = new Grid(width, height);
+      for (int currentY = 0; currentY < height; currentY++) {
+        JsonArray line = gridSquares.get(currentY).getAsJsonArray();
+        if (line.size() != width) {
+          throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
+        }
+        for (int currentX = 0; currentX < width; currentX++) {
+          JsonObject descriptor = line.get(currentX).getAsJsonObject();
+          int tileType = descriptor.get("tileType").getAsInt();
+          int assetId = descriptor.has("assetId") ? descriptor.get("assetId").getAsInt() : 0;
+          int value = descriptor.has("value") ? descriptor.get("value").getAsInt() : 0;
+          grid.initSquare(currentX, currentY, tileType, assetId, value);
+        }
+      }
+      return grid;
+    } catch (Exception e) {
+      throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
+    }
+  }
+}
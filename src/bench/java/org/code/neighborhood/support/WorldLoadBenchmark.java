@@ -0,0 +1,61 @@
+package org.code.neighborhood.support;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cost of getting a World for a map file: parsing it with new World(path) every time, against
+// WorldRegistry handing out a copy of its cached grid, against restoring a snapshot of a world
+// after painting one square
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dneighborhood.headless=true"})
+@State(Scope.Benchmark)
+public class WorldLoadBenchmark {
+  @Param({"10", "100", "512"})
+  int size;
+
+  private String path;
+  private World world;
+  private GridSnapshot snapshot;
+
+  @Setup
+  public void setUp() throws IOException {
+    Path file = MapFixtures.jsonFile(size);
+    path = file.toString();
+    WorldRegistry.clear();
+    world = new World(path);
+    snapshot = world.snapshot();
+  }
+
+  @Benchmark
+  public World newWorldFromFile() {
+    return new World(path);
+  }
+
+  @Benchmark
+  public World registryWorld() {
+    WorldRegistry.reset();
+    return WorldRegistry.getWorld(path);
+  }
+
+  @Benchmark
+  public World restoreSnapshot() {
+    world.getGrid().restoreSquare(1, 1, 0xFFFF0000, 0, 0);
+    world.restore(snapshot);
+    return world;
+  }
+}
@@ -0,0 +1,36 @@
+package org.code.neighborhood;
+
+/** One run of a program against a map, for the {@link BatchRunner}. */
+public final class BatchJob {
+  private final String name;
+  private final PainterProgram program;
+  private final String mapPath;
+
+  /**
+   * @param name a name for the job in reports
+   * @param program the program to run
+   * @param mapPath the JSON or .nbmap map file the program's painters are placed on
+   */
+  public BatchJob(String name, PainterProgram program, String mapPath) {
+    this.name = name;
+    this.program = program;
+    this.mapPath = mapPath;
+  }
+
+  public String getName() {
+    return this.name;
+  }
+
+  public PainterProgram getProgram() {
+    return this.program;
+  }
+
+  public String getMapPath() {
+    return this.mapPath;
+  }
+
+  @Override
+  public String toString() {
+    return this.name;
+  }
+}
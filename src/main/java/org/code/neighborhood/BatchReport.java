@@ -0,0 +1,57 @@
+package org.code.neighborhood;
+
+import java.util.Collections;
+import java.util.List;
+
+/** The results of a {@link BatchRunner} run, in the order the jobs were given, with totals. */
+public final class BatchReport {
+  private final List<BatchResult> results;
+  private final long wallNanos;
+
+  BatchReport(List<BatchResult> results, long wallNanos) {
+    this.results = Collections.unmodifiableList(results);
+    this.wallNanos = wallNanos;
+  }
+
+  public List<BatchResult> getResults() {
+    return this.results;
+  }
+
+  /** @return the time from starting the first job to finishing the last */
+  public long getWallNanos() {
+    return this.wallNanos;
+  }
+
+  public int getFailureCount() {
+    int failures = 0;
+    for (BatchResult result : this.results) {
+      if (!result.isSuccess()) {
+        failures++;
+      }
+    }
+    return failures;
+  }
+
+  public long getActionCount() {
+    long actions = 0;
+    for (BatchResult result : this.results) {
+      actions += result.getActionCount();
+    }
+    return actions;
+  }
+
+  public double getJobsPerSecond() {
+    return this.results.size() * 1e9 / Math.max(1, this.wallNanos);
+  }
+
+  public double getActionsPerSecond() {
+    return this.getActionCount() * 1e9 / Math.max(1, this.wallNanos);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d jobs (%d failed), %d actions in %d ms: %.1f jobs/s, %.0f actions/s",
+        this.results.size(), this.getFailureCount(), this.getActionCount(),
+        this.wallNanos / 1_000_000, this.getJobsPerSecond(), this.getActionsPerSecond());
+  }
+}
@@ -0,0 +1,56 @@
+package org.code.neighborhood;
+
+import org.code.neighborhood.support.Grid;
+
+/** The outcome of one {@link BatchJob}. */
+public final class BatchResult {
+  private final BatchJob job;
+  private final Grid grid;
+  private final long actionCount;
+  private final Throwable error;
+  private final long elapsedNanos;
+
+  BatchResult(BatchJob job, Grid grid, long actionCount, Throwable error, long elapsedNanos) {
+    this.job = job;
+    this.grid = grid;
+    this.actionCount = actionCount;
+    this.error = error;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  public BatchJob getJob() {
+    return this.job;
+  }
+
+  /** @return the job's grid as the program left it, or null if the map could not be loaded */
+  public Grid getGrid() {
+    return this.grid;
+  }
+
+  /** @return the number of painter actions the program took, including questions like canMove */
+  public long getActionCount() {
+    return this.actionCount;
+  }
+
+  /**
+   * @return what the program threw, such as a NeighborhoodRuntimeException with the message
+   *     INVALID_MOVE, or null if it finished normally
+   */
+  public Throwable getError() {
+    return this.error;
+  }
+
+  public boolean isSuccess() {
+    return this.error == null;
+  }
+
+  public long getElapsedNanos() {
+    return this.elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return this.job.getName() + ": " + (this.error == null ? "ok" : this.error.toString())
+        + ", " + this.actionCount + " actions in " + this.elapsedNanos / 1_000_000 + " ms";
+  }
+}
@@ -0,0 +1,207 @@
+package org.code.neighborhood;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.code.neighborhood.support.PainterThreads;
+import org.code.neighborhood.support.World;
+import org.code.neighborhood.support.WorldRegistry;
+
+/**
+ * Runs many painter programs against many maps in parallel within one JVM. Each job gets its own
+ * headless world that no other job can see, copied from a parse of its map that is shared by
+ * every job on that map. Painter actions are counted but not logged.
+ *
+ * <p>A job that runs longer than the job timeout, a minute unless {@link #setJobTimeout} says
+ * otherwise, is stopped: its thread is interrupted, its world is stopped so that the next painter
+ * action throws, and its result fails with a {@link TimeoutException}. A program that loops
+ * without taking painter actions or checking for interrupts cannot be stopped this way.
+ *
+ * <p>A job's world is bound to the thread that runs the job, so painters must be created on that
+ * thread. Painters created on threads the program starts itself are placed in the shared world
+ * for the map instead.
+ *
+ * <pre>
+ * try (BatchRunner runner = new BatchRunner()) {
+ *   BatchReport report = runner.run(BatchRunner.jobs(programs, maps));
+ * }
+ * </pre>
+ */
+public class BatchRunner implements AutoCloseable {
+  /** How long a job may run before it is stopped, unless {@link #setJobTimeout} is called. */
+  public static final long DEFAULT_JOB_TIMEOUT_MILLIS = 60_000;
+
+  private final ExecutorService executor;
+  private final boolean ownsExecutor;
+  // Stops jobs that run past the timeout
+  private final ScheduledExecutorService watchdog;
+  private volatile long jobTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_JOB_TIMEOUT_MILLIS);
+
+  /** Runs jobs on virtual threads when the JDK has them, otherwise one thread per core. */
+  public BatchRunner() {
+    this(PainterThreads.newExecutor(), true);
+  }
+
+  /** Runs jobs on the given executor, which the caller shuts down. */
+  public BatchRunner(ExecutorService executor) {
+    this(executor, false);
+  }
+
+  private BatchRunner(ExecutorService executor, boolean ownsExecutor) {
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+    ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1, task -> {
+      Thread thread = new Thread(task, "neighborhood-batch-watchdog");
+      thread.setDaemon(true);
+      return thread;
+    });
+    watchdog.setRemoveOnCancelPolicy(true);
+    this.watchdog = watchdog;
+  }
+
+  /**
+   * Sets how long each job may run before it is stopped and reported as failed.
+   *
+   * @param timeout the longest a job may run, or 0 to let jobs run for as long as they take
+   * @param unit the unit of timeout
+   */
+  public void setJobTimeout(long timeout, TimeUnit unit) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException("timeout must not be negative");
+    }
+    this.jobTimeoutNanos = unit.toNanos(timeout);
+  }
+
+  /**
+   * Makes one job for every program on every map, named "program @ map".
+   *
+   * @param programs the programs to run, by name
+   * @param mapPaths the maps to run each program on
+   */
+  public static List<BatchJob> jobs(Map<String, PainterProgram> programs, List<String> mapPaths) {
+    List<BatchJob> jobs = new ArrayList<>();
+    for (Map.Entry<String, PainterProgram> program : programs.entrySet()) {
+      for (String mapPath : mapPaths) {
+        jobs.add(new BatchJob(program.getKey() + " @ " + mapPath, program.getValue(), mapPath));
+      }
+    }
+    return jobs;
+  }
+
+  /** Runs every job and waits for all of them to finish. A failing job never stops the others. */
+  public BatchReport run(List<BatchJob> jobs) throws InterruptedException {
+    long start = System.nanoTime();
+    List<Callable<BatchResult>> tasks = new ArrayList<>(jobs.size());
+    for (BatchJob job : jobs) {
+      tasks.add(() -> runJob(job));
+    }
+    List<BatchResult> results = new ArrayList<>(jobs.size());
+    for (Future<BatchResult> future : this.executor.invokeAll(tasks)) {
+      try {
+        results.add(future.get());
+      } catch (ExecutionException e) {
+        // runJob catches everything the program throws, so this is a bug in the runner
+        throw new IllegalStateException(e.getCause());
+      }
+    }
+    return new BatchReport(results, System.nanoTime() - start);
+  }
+
+  private BatchResult runJob(BatchJob job) {
+    long start = System.nanoTime();
+    World world;
+    try {
+      world = WorldRegistry.newWorld(job.getMapPath());
+    } catch (RuntimeException e) {
+      return new BatchResult(job, null, 0, e, System.nanoTime() - start);
+    }
+    world.setHeadless(true);
+    world.setLogging(false);
+
+    Throwable error = null;
+    Watch watch = this.watch(world);
+    World.setCurrent(world);
+    try {
+      job.getProgram().run();
+    } catch (Throwable e) {
+      error = e;
+    } finally {
+      World.setCurrent(null);
+      if (watch != null && watch.finish()) {
+        TimeoutException timeout = new TimeoutException(
+            "stopped after " + TimeUnit.NANOSECONDS.toMillis(this.jobTimeoutNanos) + " ms");
+        if (error != null) {
+          timeout.initCause(error);
+        }
+        error = timeout;
+      }
+    }
+    return new BatchResult(job, world.getGrid(), world.getActionCount(), error,
+        System.nanoTime() - start);
+  }
+
+  // Starts the timeout of a job about to run on the calling thread, or returns null without one
+  private Watch watch(World world) {
+    long timeout = this.jobTimeoutNanos;
+    if (timeout == 0) {
+      return null;
+    }
+    Watch watch = new Watch(Thread.currentThread(), world);
+    watch.timer = this.watchdog.schedule(watch::expire, timeout, TimeUnit.NANOSECONDS);
+    return watch;
+  }
+
+  // The timeout of one running job. Expiring and finishing exclude each other, so a job's thread
+  // is never interrupted after the job has finished.
+  private static final class Watch {
+    private final Thread thread;
+    private final World world;
+    private ScheduledFuture<?> timer;
+    private boolean finished;
+    private boolean expired;
+
+    Watch(Thread thread, World world) {
+      this.thread = thread;
+      this.world = world;
+    }
+
+    synchronized void expire() {
+      if (!this.finished) {
+        this.expired = true;
+        this.world.stop();
+        this.thread.interrupt();
+      }
+    }
+
+    // Ends the timeout and returns whether it expired, clearing the interrupt it caused
+    boolean finish() {
+      synchronized (this) {
+        this.finished = true;
+      }
+      this.timer.cancel(false);
+      if (this.expired) {
+        Thread.interrupted();
+      }
+      return this.expired;
+    }
+  }
+
+  /** Shuts down the executor if this runner created it. */
+  @Override
+  public void close() {
+    this.watchdog.shutdownNow();
+    if (this.ownsExecutor) {
+      this.executor.shutdown();
+    }
+  }
+}
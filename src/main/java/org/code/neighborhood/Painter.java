@@ -1,37 +1,38 @@
 package org.code.neighborhood;
 
 import java.awt.Color;
-import java.util.HashMap;
-
-import javax.swing.JFrame;
-import javax.swing.SwingUtilities;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.code.neighborhood.gui.PainterVisualizer;
+import org.code.neighborhood.gui.WorldDisplay;
 import org.code.neighborhood.support.ColorHelpers;
 import org.code.neighborhood.support.Direction;
+import org.code.neighborhood.support.EventLog;
 import org.code.neighborhood.support.ExceptionKeys;
 import org.code.neighborhood.support.Grid;
-import org.code.neighborhood.support.GridSquare;
 import org.code.neighborhood.support.NeighborhoodRuntimeException;
+import org.code.neighborhood.support.PainterEvent;
+import org.code.neighborhood.support.TraceRecorder;
 import org.code.neighborhood.support.World;
+import org.code.neighborhood.support.WorldRegistry;
 
 public class Painter {
   private static final int LARGE_GRID_SIZE = 20;
-  private static String DIRECTION;
   //private static Color COLOR;
-  private static final String ID = "id";
-  private static int lastId = 0;
+  private static final AtomicInteger lastId = new AtomicInteger();
   private int xLocation;
   private int yLocation;
   private Direction direction;
   private int remainingPaint;
   private final boolean hasInfinitePaint;
   private final Grid grid;
-  private final String id;
+  private final int id;
+  private final EventLog log;
+  private final World world;
+  private final boolean logging;
+  private final boolean headless;
   private PainterVisualizer visualizer;
   private int delay;
-  private static JFrame frame;
-  private static final int TILE_SIZE = 32; // or match your project constant
 
   /** Creates a Painter object at (0, 0), facing East, with no paint. */
   public Painter() {
@@ -56,63 +57,53 @@ public class Painter {
     this.direction = Direction.fromString(direction);
     this.remainingPaint = paint;
     this.delay = 300;
-    World currentWorld = new World(filePath);
+    // A world bound to this thread, as the batch runner does, takes the place of the map file
+    World currentWorld = World.getCurrent();
+    if (currentWorld == null) {
+      currentWorld = WorldRegistry.getWorld(filePath);
+    }
     // if (currentWorld == null) {
     //   currentWorld = new World();
     //   //JavabuilderContext.getInstance().register(World.class, currentWorld);
     // }
     this.grid = currentWorld.getGrid();
+    this.headless = currentWorld.isHeadless();
     //this.outputAdapter = JavabuilderContext.getInstance().getGlobalProtocol().getOutputAdapter();
-    int gridSize = this.grid.getSize();
     this.hasInfinitePaint = couldHaveInfinitePaint ? this.grid.getSize() >= LARGE_GRID_SIZE : false;
-    if (x < 0 || y < 0 || x >= gridSize || y >= gridSize) {
+    if (x < 0 || y < 0 || x >= this.grid.getWidth() || y >= this.grid.getHeight()) {
       throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_LOCATION);
     }
-    this.id = "painter-" + lastId++;
-    System.out.println("Painter made with " + this.getMyPaint() + " buckets of paint");
-    // ✅ VISUALIZER SECTION (run once)
-    if (visualizer == null) {
-        visualizer = new PainterVisualizer();
-        frame = new JFrame("Neighborhood Simulator");
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.getContentPane().add(visualizer);
-        frame.setSize(grid.getWidth() * TILE_SIZE + 16, grid.getHeight() * TILE_SIZE + 39); // border padding
-        frame.setVisible(true);
+    this.id = lastId.getAndIncrement();
+    this.world = currentWorld;
+    this.logging = currentWorld.isLogging();
+    this.log = EventLog.get();
+    this.log(PainterEvent.Kind.CREATE, 0, false);
+    if (this.headless) {
+      return;
     }
-
-    // ✅ Add this Painter to the list to be drawn
+    // All painters in a world share its window
+    visualizer = WorldDisplay.visualizerFor(currentWorld);
+    visualizer.setStepDelay(delay);
     visualizer.addPainter(this);
-    repaintWithDelay(delay); // optional
   }
 
   /** Turns the painter one compass direction left (i.e. North -> West). */
   public void turnLeft() {
     this.direction = this.direction.turnLeft();
-    HashMap<String, String> details = this.getSignalDetails();
-    details.put(DIRECTION, this.direction.getDirectionString());
-    System.out.println("Action: TURN, direction = " + this.direction.getDirectionString());
-    repaintWithDelay(delay);
+    this.log(PainterEvent.Kind.TURN, 0, false);
+    recordAction(false);
   }
 
   /** Move the painter one square forward in the direction the painter is facing. */
   public void move() {
-    if (this.isValidMovement(this.direction)) {
-      if (this.direction.isNorth()) {
-        this.yLocation--;
-      } else if (this.direction.isSouth()) {
-        this.yLocation++;
-      } else if (this.direction.isEast()) {
-        this.xLocation++;
-      } else {
-        this.xLocation--;
-      }
+    if (this.grid.canMove(this.xLocation, this.yLocation, this.direction)) {
+      this.xLocation += this.direction.getDx();
+      this.yLocation += this.direction.getDy();
     } else {
       throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_MOVE);
     }
-    HashMap<String, String> details = this.getSignalDetails();
-    details.put(DIRECTION, this.direction.getDirectionString());
-    System.out.println("Action: MOVE, direction = " + this.direction.getDirectionString());
-    repaintWithDelay(delay);
+    this.log(PainterEvent.Kind.MOVE, 0, false);
+    recordAction(false);
   }
 
   /**
@@ -126,13 +117,13 @@ public class Painter {
     }
 
     if (this.hasPaint()) {
-        this.grid.getSquare(this.xLocation, this.yLocation).setColor(color);
+        this.grid.setColor(this.xLocation, this.yLocation, color);
         this.remainingPaint--;
-        System.out.println("Painted with color: " + color.toString());
+        this.log(PainterEvent.Kind.PAINT, color.getRGB(), false);
     } else {
         throw new IllegalStateException("Painter is out of paint.");
     }
-    repaintWithDelay(delay);
+    recordAction(true);
   }
 
   public void paint(String colorName) {
@@ -143,11 +134,176 @@ public class Painter {
     paint(color); // delegate to the real method
   }
 
+  /**
+   * Moves the painter the given number of squares forward as one action. The whole path is
+   * checked first, so the painter either makes every move or does not move at all. Moving zero
+   * squares does nothing and is not counted as an action.
+   *
+   * @param squares the number of squares to move
+   * @throws NeighborhoodRuntimeException INVALID_MOVE if any square on the way cannot be entered
+   */
+  public void moveN(int squares) {
+    if (squares < 0) {
+      throw new IllegalArgumentException("Cannot move a negative number of squares: " + squares);
+    }
+    if (squares == 0) {
+      return;
+    }
+    int dx = this.direction.getDx();
+    int dy = this.direction.getDy();
+    for (int i = 1; i <= squares; i++) {
+      if (!this.grid.validLocation(this.xLocation + i * dx, this.yLocation + i * dy)) {
+        throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_MOVE);
+      }
+    }
+    this.xLocation += squares * dx;
+    this.yLocation += squares * dy;
+    this.log(PainterEvent.Kind.MOVE, 0, false);
+    recordAction(false);
+  }
+
+  /**
+   * Paints a line of squares as one action, starting with the painter's square and moving
+   * forward. The painter ends on the last square of the line, having used one unit of paint per
+   * square.
+   *
+   * @param color the color of the paint being added
+   * @param length the number of squares to paint
+   */
+  public void paintLine(Color color, int length) {
+    this.paintBox(color, length, 1, PainterEvent.Kind.PAINT_LINE);
+  }
+
+  /**
+   * Paints a line of squares as one action. See {@link #paintLine(Color, int)}.
+   *
+   * @param colorName the name of the color of the paint being added
+   * @param length the number of squares to paint
+   */
+  public void paintLine(String colorName, int length) {
+    this.paintLine(colorFromName(colorName), length);
+  }
+
+  /**
+   * Paints a rectangle as one action. It starts at the painter's square, reaches length squares
+   * forward and width squares to the painter's right. The painter ends on the far corner, facing
+   * the same way, having used one unit of paint per square.
+   *
+   * @param color the color of the paint being added
+   * @param length the number of squares the rectangle reaches forward
+   * @param width the number of squares the rectangle reaches to the right
+   */
+  public void paintRect(Color color, int length, int width) {
+    this.paintBox(color, length, width, PainterEvent.Kind.PAINT_RECT);
+  }
+
+  /**
+   * Paints a rectangle as one action. See {@link #paintRect(Color, int, int)}.
+   *
+   * @param colorName the name of the color of the paint being added
+   * @param length the number of squares the rectangle reaches forward
+   * @param width the number of squares the rectangle reaches to the right
+   */
+  public void paintRect(String colorName, int length, int width) {
+    this.paintRect(colorFromName(colorName), length, width);
+  }
+
+  /**
+   * Paints the painter's square and every square connected to it that has the same color, as
+   * one action. Walls, obstacles, paint buckets and squares of other colors bound the region.
+   * The painter does not move, and uses one unit of paint per square painted.
+   *
+   * @param color the color of the paint being added
+   * @return the number of squares painted
+   */
+  public int floodFill(Color color) {
+    if (color == null) {
+      throw new IllegalArgumentException("Invalid color: null");
+    }
+    int[] spans = this.grid.fillSpans(this.xLocation, this.yLocation);
+    if (spans.length == 0) {
+      throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_PAINT_LOCATION);
+    }
+    int squares = Grid.spanSquares(spans);
+    this.usePaint(squares);
+    this.grid.paintSpans(spans, color.getRGB());
+    this.log(PainterEvent.Kind.FILL, color.getRGB(), false);
+    recordSpans(color.getRGB(), spans);
+    return squares;
+  }
+
+  /**
+   * Flood fills the painter's region. See {@link #floodFill(Color)}.
+   *
+   * @param colorName the name of the color of the paint being added
+   * @return the number of squares painted
+   */
+  public int floodFill(String colorName) {
+    return this.floodFill(colorFromName(colorName));
+  }
+
+  private static Color colorFromName(String colorName) {
+    Color color = ColorHelpers.fromName(colorName);
+    if (color == null) {
+      throw new IllegalArgumentException("Unrecognized color name: " + colorName);
+    }
+    return color;
+  }
+
+  // Paints the length x width rectangle ahead and to the right of the painter and moves the
+  // painter to its far corner. Every square is checked before any is painted.
+  private void paintBox(Color color, int length, int width, PainterEvent.Kind kind) {
+    if (color == null) {
+      throw new IllegalArgumentException("Invalid color: null");
+    }
+    if (length < 1 || width < 1) {
+      throw new IllegalArgumentException("Cannot paint " + length + " by " + width + " squares");
+    }
+    Direction right = this.direction.right();
+    int endX = this.xLocation + (length - 1) * this.direction.getDx() + (width - 1) * right.getDx();
+    int endY = this.yLocation + (length - 1) * this.direction.getDy() + (width - 1) * right.getDy();
+    int fromX = Math.min(this.xLocation, endX);
+    int fromY = Math.min(this.yLocation, endY);
+    int toX = Math.max(this.xLocation, endX);
+    int toY = Math.max(this.yLocation, endY);
+    for (int y = fromY; y <= toY; y++) {
+      for (int x = fromX; x <= toX; x++) {
+        if (!this.grid.validLocation(x, y)) {
+          throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_MOVE);
+        }
+        if (!this.grid.canHoldPaint(x, y)) {
+          throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_PAINT_LOCATION);
+        }
+      }
+    }
+    this.usePaint(length * width);
+    int[] spans = new int[(toY - fromY + 1) * 3];
+    for (int i = 0, y = fromY; i < spans.length; i += 3, y++) {
+      spans[i] = y;
+      spans[i + 1] = fromX;
+      spans[i + 2] = toX;
+    }
+    this.grid.paintSpans(spans, color.getRGB());
+    this.xLocation = endX;
+    this.yLocation = endY;
+    this.log(kind, color.getRGB(), false);
+    recordSpans(color.getRGB(), spans);
+  }
+
+  // Takes the paint for a bulk action from the painter's bucket, or throws without taking any
+  // if there is not enough
+  private void usePaint(int units) {
+    if (!this.hasInfinitePaint && this.remainingPaint < units) {
+      throw new IllegalStateException("Painter is out of paint.");
+    }
+    this.remainingPaint -= units;
+  }
+
   /** Removes all paint on the square where the painter is standing. */
   public void scrapePaint() {
-    this.grid.getSquare(this.xLocation, this.yLocation).removePaint();
-    System.out.println("Action: REMOVING PAINT = " + this.direction.getDirectionString());
-    repaintWithDelay(delay);
+    this.grid.removePaint(this.xLocation, this.yLocation);
+    this.log(PainterEvent.Kind.SCRAPE, 0, false);
+    recordAction(true);
   }
 
   /**
@@ -161,26 +317,42 @@ public class Painter {
 
   /** Hides the painter on the screen. */
   public void hidePainter() {
-    System.out.println("Action: HIDING PAINTER");
+    this.log(PainterEvent.Kind.HIDE, 0, false);
   }
 
   /** Shows the painter on the screen. */
   public void showPainter() {
-    System.out.println("Action: SHOWING PAINTER");
+    this.log(PainterEvent.Kind.SHOW, 0, false);
   }
 
+  /**
+   * Sets how long each action is shown on screen. The program itself does not wait; actions are
+   * played back at this rate while it keeps running.
+   *
+   * @param delay the time in milliseconds each action is shown for
+   */
   public void setDelay(int delay){
     this.delay = delay;
+    if (visualizer != null) {
+      visualizer.setStepDelay(delay);
+    }
+  }
+
+  // Queues the painter's new state for the display to play back. squareChanged says whether the
+  // action changed the square the painter is standing on.
+  private void recordAction(boolean squareChanged) {
+    if (this.headless || visualizer == null) {
+      return;
+    }
+    visualizer.recordAction(this, this.direction, squareChanged);
   }
 
-  private void repaintWithDelay(int ms) {
-    try {
-        // Trigger a repaint of the visualizer
-        SwingUtilities.invokeLater(() -> visualizer.repaint());
-        Thread.sleep(ms);
-    } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
+  // Queues an action that painted many squares as one step for the display to play back
+  private void recordSpans(int argb, int[] spans) {
+    if (this.headless || visualizer == null) {
+      return;
     }
+    visualizer.recordSpans(this, this.direction, argb, spans);
   }
 
   public void setVisualizer(PainterVisualizer visualizer) {
@@ -192,33 +364,32 @@ public class Painter {
    * the screen goes down. If the painter is not standing on a paint bucket, nothing happens.
    */
   public void takePaint() {
-    GridSquare currentSquare = this.grid.getSquare(this.xLocation, this.yLocation);
-    if (currentSquare.containsPaint()) {
-        currentSquare.collectPaint();
-        this.remainingPaint++;
-        System.out.println("Action: TAKING PAINT = " + this.getMyPaint() + " buckets in inventory");
-
-        // Check if no paint buckets remain on the tile
-        if (!currentSquare.containsPaint()) {
-            currentSquare.setAssetID(0); // Reset assetID to 0
-        }
+    // Taking the unit and emptying the bucket happen together, so painters on other threads
+    // can never take the same unit
+    if (this.grid.takePaint(this.xLocation, this.yLocation)) {
+      this.remainingPaint++;
+      this.log(PainterEvent.Kind.TAKE_PAINT, 0, true);
     } else {
+      this.log(PainterEvent.Kind.TAKE_PAINT, 0, false);
+      // A warning rather than an action, so it is printed right away instead of with the log
+      if (this.logging) {
         System.out.println("There is no paint to collect here");
+      }
     }
-    repaintWithDelay(delay);
-}
+    recordAction(true);
+  }
 
   /** @return True if there is paint in the square where the painter is standing. */
   public boolean isOnPaint() {
-    boolean isOnPaint = this.grid.getSquare(this.xLocation, this.yLocation).hasColor();
-    System.out.println("Action: IS ON PAINT = " + isOnPaint);
+    boolean isOnPaint = this.grid.hasColor(this.xLocation, this.yLocation);
+    this.log(PainterEvent.Kind.IS_ON_PAINT, 0, isOnPaint);
     return isOnPaint;
   }
 
   /** @return True if there is a paint bucket in the square where the painter is standing. */
   public boolean isOnBucket() {
-    boolean isOnBucket = this.grid.getSquare(this.xLocation, this.yLocation).containsPaint();
-    System.out.println("Action: IS ON BUCKET = " + isOnBucket);
+    boolean isOnBucket = this.grid.containsPaint(this.xLocation, this.yLocation);
+    this.log(PainterEvent.Kind.IS_ON_BUCKET, 0, isOnBucket);
     return isOnBucket;
   }
 
@@ -233,27 +404,27 @@ public class Painter {
   /** @return True if there is no barrier one square ahead in the requested direction. */
 
   public boolean canMove(String relativeDirection) {
-    Direction absoluteDirection = getAbsoluteDirection(relativeDirection);
-    System.out.println("Action: CAN MOVE " + relativeDirection + ": " + isValidMovement(absoluteDirection));
-    return isValidMovement(absoluteDirection);
-  }
-
-  private Direction getAbsoluteDirection(String relativeDirection) {
-    switch (relativeDirection.toLowerCase()) {
-        case "left" -> {
-            return direction.left();
-          }
-        case "right" -> {
-            return direction.right();
-          }
-        case "forward" -> {
-            return direction;
-          }
-        case "backward" -> {
-            return direction.opposite();
-          }
-        default -> throw new IllegalArgumentException("Invalid direction: " + relativeDirection);
+    // equalsIgnoreCase compares in place, unlike switching on toLowerCase()
+    Direction absoluteDirection;
+    PainterEvent.Kind kind;
+    if ("forward".equalsIgnoreCase(relativeDirection)) {
+      absoluteDirection = direction;
+      kind = PainterEvent.Kind.CAN_MOVE_FORWARD;
+    } else if ("left".equalsIgnoreCase(relativeDirection)) {
+      absoluteDirection = direction.left();
+      kind = PainterEvent.Kind.CAN_MOVE_LEFT;
+    } else if ("right".equalsIgnoreCase(relativeDirection)) {
+      absoluteDirection = direction.right();
+      kind = PainterEvent.Kind.CAN_MOVE_RIGHT;
+    } else if ("backward".equalsIgnoreCase(relativeDirection)) {
+      absoluteDirection = direction.opposite();
+      kind = PainterEvent.Kind.CAN_MOVE_BACKWARD;
+    } else {
+      throw new IllegalArgumentException("Invalid direction: " + relativeDirection);
     }
+    boolean canMove = isValidMovement(absoluteDirection);
+    this.log(kind, 0, canMove);
+    return canMove;
   }
   // /** @return True if there is no barrier one square ahead in the requested direction. */
   // public boolean canMove(String direction) {
@@ -269,7 +440,7 @@ public class Painter {
 
   /** @return the color of the square where the painter is standing. */
   public Color getColor() {
-    return this.grid.getSquare(this.xLocation, this.yLocation).getColor();
+    return this.grid.color(this.xLocation, this.yLocation);
   }
 
   /** @return True if facing North */
@@ -308,11 +479,11 @@ public class Painter {
   }
 
   public void showBuckets() {
-    System.out.println("[Painter] showBuckets() called");
+    this.log(PainterEvent.Kind.SHOW_BUCKETS, 0, false);
   }
 
   public void hideBuckets() {
-    System.out.println("[Painter] hideBuckets() called");
+    this.log(PainterEvent.Kind.HIDE_BUCKETS, 0, false);
   }
 
   /**
@@ -333,6 +504,41 @@ public class Painter {
     this.remainingPaint = paint;
   }
 
+  /**
+   * Walks the painter along a shortest path to the given square, turning left and moving one
+   * square at a time as a program would.
+   *
+   * @param x the column to walk to
+   * @param y the row to walk to
+   * @throws NeighborhoodRuntimeException INVALID_LOCATION if the square cannot be reached
+   */
+  public void navigateTo(int x, int y) {
+    Direction[] steps = this.grid.getNavigator().path(this.xLocation, this.yLocation, x, y);
+    if (steps == null) {
+      throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_LOCATION);
+    }
+    for (Direction step : steps) {
+      while (this.direction != step) {
+        this.turnLeft();
+      }
+      this.move();
+    }
+  }
+
+  /**
+   * Walks the painter to the bucket with paint that the fewest moves lead to.
+   *
+   * @return True if the painter reached a bucket, false if no bucket with paint can be reached
+   */
+  public boolean moveToNearestBucket() {
+    int[] bucket = this.grid.getNavigator().nearestBucket(this.xLocation, this.yLocation);
+    if (bucket == null) {
+      return false;
+    }
+    this.navigateTo(bucket[0], bucket[1]);
+    return true;
+  }
+
   /**
    * Helper function to check if the painter can move in the specified direction.
    *
@@ -340,21 +546,21 @@ public class Painter {
    * @return True if the painter can move in that direction
    */
   private boolean isValidMovement(Direction movementDirection) {
-    if (movementDirection.isNorth()) {
-      return this.grid.validLocation(this.xLocation, this.yLocation - 1);
-    } else if (movementDirection.isSouth()) {
-      return this.grid.validLocation(this.xLocation, this.yLocation + 1);
-    } else if (movementDirection.isEast()) {
-      return this.grid.validLocation(this.xLocation + 1, this.yLocation);
-    } else {
-      return this.grid.validLocation(this.xLocation - 1, this.yLocation);
-    }
+    return this.grid.canMove(this.xLocation, this.yLocation, movementDirection);
   }
 
-  private HashMap<String, String> getSignalDetails() {
-    HashMap<String, String> details = new HashMap<>();
-    details.put(ID, this.id);
-    return details;
+  // Records an action together with the painter's state after it
+  private void log(PainterEvent.Kind kind, int color, boolean result) {
+    this.world.countAction();
+    if (this.logging) {
+      this.log.log(this.id, kind, this.xLocation, this.yLocation, this.direction, color,
+          this.remainingPaint, result);
+    }
+    TraceRecorder recorder = this.world.getRecorder();
+    if (recorder != null) {
+      recorder.record(this.id, kind, this.xLocation, this.yLocation, this.direction, color,
+          this.remainingPaint, result);
+    }
   }
 
   public Grid getGrid() {
@@ -0,0 +1,10 @@
+package org.code.neighborhood;
+
+/**
+ * A program that creates and moves painters, such as a student's solution. When run by a
+ * {@link BatchRunner}, every painter it creates is placed in the world of the job running it.
+ */
+@FunctionalInterface
+public interface PainterProgram {
+  void run() throws Exception;
+}
@@ -0,0 +1,452 @@
+package org.code.neighborhood.gui;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.code.neighborhood.support.Direction;
+import org.code.neighborhood.support.DirtySquares;
+import org.code.neighborhood.support.Grid;
+import org.code.neighborhood.support.Trace;
+import org.code.neighborhood.support.TraceReplayer;
+
+// Turns a recorded Trace into an animation without playing it back in real time. The trace is
+// replayed onto a copy of the grid it was recorded against as fast as it runs; after each frame's
+// steps only the squares that changed, and the squares painters left or stand on, are redrawn
+// into one offscreen image. Frames are handed to a background thread that encodes them while the
+// next ones are drawn.
+//
+// writeGif writes an animated GIF in which each frame holds only the rectangle that changed, and
+// steps that change nothing lengthen the previous frame. writeRaw writes every frame whole as
+// 24-bit RGB pixels in row order, for an external encoder such as
+//
+//   ffmpeg -f rawvideo -pix_fmt rgb24 -s <width>x<height> -r <frames per second> -i - run.mp4
+//
+// The first frame shows the grid before the first step.
+public class AnimationExporter {
+    // How long each frame is shown, the same as the window's default step delay
+    public static final int DEFAULT_FRAME_MILLIS = 300;
+    // Frames drawn but not yet encoded before drawing waits for the encoder
+    private static final int QUEUED_FRAMES = 16;
+
+    private final Grid grid;
+    private final Trace trace;
+    private final int tileSize;
+    private int stepsPerFrame = 1;
+    private int frameMillis = DEFAULT_FRAME_MILLIS;
+
+    // Animates the trace on the grid it was recorded against, which is not changed
+    public AnimationExporter(Grid grid, Trace trace) {
+        this(grid, trace, PainterAssets.TILE_SIZE);
+    }
+
+    public AnimationExporter(Grid grid, Trace trace, int tileSize) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive: " + tileSize);
+        }
+        this.grid = grid;
+        this.trace = trace;
+        this.tileSize = tileSize;
+    }
+
+    // Sets how many steps of the trace each frame shows; long runs can be sped up this way
+    public void setStepsPerFrame(int stepsPerFrame) {
+        if (stepsPerFrame <= 0) {
+            throw new IllegalArgumentException(
+                "Steps per frame must be positive: " + stepsPerFrame);
+        }
+        this.stepsPerFrame = stepsPerFrame;
+    }
+
+    // Sets how long each frame of a GIF is shown. GIFs time frames in hundredths of a second.
+    public void setFrameMillis(int frameMillis) {
+        if (frameMillis < 10) {
+            throw new IllegalArgumentException("Frame time must be at least 10 ms: " + frameMillis);
+        }
+        this.frameMillis = frameMillis;
+    }
+
+    public int getFrameWidth() {
+        return grid.getWidth() * tileSize;
+    }
+
+    public int getFrameHeight() {
+        return grid.getHeight() * tileSize;
+    }
+
+    // Returns the number of frames an export writes, counting the first
+    public int getFrameCount() {
+        return 1 + (trace.size() + stepsPerFrame - 1) / stepsPerFrame;
+    }
+
+    // Writes the animation as a looping GIF. Returns the number of images in the file, which is
+    // fewer than getFrameCount() when some frames change nothing.
+    public int writeGif(Path file) throws IOException {
+        try (GifEncoder encoder = new GifEncoder(file, frameMillis / 10)) {
+            run(encoder, false);
+            return encoder.images;
+        }
+    }
+
+    // Writes every frame as getFrameWidth() * getFrameHeight() RGB pixels, three bytes each.
+    // Returns the number of frames written. The stream is not closed.
+    public int writeRaw(OutputStream out) throws IOException {
+        RawEncoder encoder = new RawEncoder(out, getFrameWidth());
+        run(encoder, true);
+        return encoder.frames;
+    }
+
+    // A frame to encode: the pixels of a rectangle of the animation, or none if nothing changed
+    private static final class Frame {
+        static final Frame END = new Frame(null, 0, 0);
+
+        final BufferedImage image;
+        final int x;
+        final int y;
+
+        Frame(BufferedImage image, int x, int y) {
+            this.image = image;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    private interface FrameEncoder {
+        void encode(Frame frame) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    // Replays the trace, drawing frames on this thread and encoding them on another
+    private void run(FrameEncoder encoder, boolean wholeFrames) throws IOException {
+        BlockingQueue<Frame> frames = new ArrayBlockingQueue<>(QUEUED_FRAMES);
+        Exception[] failure = new Exception[1];
+        Thread encoderThread = new Thread(() -> {
+            try {
+                for (Frame frame = frames.take(); frame != Frame.END; frame = frames.take()) {
+                    encoder.encode(frame);
+                }
+                encoder.finish();
+            } catch (InterruptedException e) {
+                // the export was abandoned
+            } catch (IOException | RuntimeException e) {
+                failure[0] = e;
+            }
+        }, "neighborhood-animation");
+        encoderThread.setDaemon(true);
+        encoderThread.start();
+
+        try {
+            FrameDrawer drawer = new FrameDrawer();
+            boolean more = true;
+            while (more) {
+                if (!offer(frames, drawer.draw(wholeFrames), encoderThread)) {
+                    break;
+                }
+                more = drawer.advance();
+            }
+            offer(frames, Frame.END, encoderThread);
+            encoderThread.join();
+        } catch (InterruptedException e) {
+            encoderThread.interrupt();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting", e);
+        } catch (RuntimeException e) {
+            encoderThread.interrupt();
+            throw e;
+        }
+        if (failure[0] instanceof IOException) {
+            throw (IOException) failure[0];
+        } else if (failure[0] != null) {
+            throw (RuntimeException) failure[0];
+        }
+    }
+
+    // Queues a frame, giving up if the encoder thread has stopped
+    private static boolean offer(BlockingQueue<Frame> frames, Frame frame, Thread encoderThread)
+            throws InterruptedException {
+        while (!frames.offer(frame, 100, TimeUnit.MILLISECONDS)) {
+            if (!encoderThread.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The replay and the image it is drawn into, touched only by the drawing thread
+    private final class FrameDrawer {
+        private final TraceReplayer replayer = new TraceReplayer(grid, trace);
+        private final GridRenderer renderer;
+        private final BufferedImage canvas;
+        private final int width = grid.getWidth();
+        private final int height = grid.getHeight();
+        // Squares to redraw for the next frame: the dirty squares, then painter squares
+        private final int painterCount = trace.getPainterCount();
+        private final int[] xs = new int[DirtySquares.CAPACITY + 2 * painterCount];
+        private final int[] ys = new int[DirtySquares.CAPACITY + 2 * painterCount];
+        // Where and which way each painter was drawn in the last frame, with x -1 if it was not
+        private final int[] drawnXs = new int[painterCount];
+        private final int[] drawnYs = new int[painterCount];
+        private final Direction[] drawnDirections = new Direction[painterCount];
+
+        FrameDrawer() {
+            renderer = new GridRenderer(width, height, tileSize, GridRenderer.panelBackground());
+            canvas = new BufferedImage(getFrameWidth(), getFrameHeight(),
+                BufferedImage.TYPE_INT_RGB);
+            // Tracking starts with everything dirty, so the first frame is drawn whole
+            replayer.getGrid().getDirtySquares().startTracking();
+            Arrays.fill(drawnXs, -1);
+        }
+
+        // Plays the steps of the next frame. Returns false once the trace has ended.
+        boolean advance() {
+            boolean stepped = false;
+            for (int i = 0; i < stepsPerFrame && replayer.stepForward(); i++) {
+                stepped = true;
+            }
+            return stepped;
+        }
+
+        // Redraws what changed since the last frame and returns the frame to encode. The image in
+        // the frame is a copy, since the canvas is drawn over while the encoder reads it.
+        Frame draw(boolean whole) {
+            Grid shown = replayer.getGrid();
+            int count = shown.getDirtySquares().drain(xs, ys);
+            boolean all = count < 0;
+            if (!all) {
+                // A painter that moved, turned or was shown or hidden is redrawn where it was
+                // and where it is
+                for (int painter = 0; painter < painterCount; painter++) {
+                    int x = replayer.isPainterVisible(painter) ? replayer.getPainterX(painter) : -1;
+                    int y = replayer.getPainterY(painter);
+                    Direction direction = replayer.getPainterDirection(painter);
+                    if (x == drawnXs[painter] && (x < 0
+                            || y == drawnYs[painter] && direction == drawnDirections[painter])) {
+                        continue;
+                    }
+                    if (drawnXs[painter] >= 0) {
+                        xs[count] = drawnXs[painter];
+                        ys[count++] = drawnYs[painter];
+                    }
+                    if (x >= 0) {
+                        xs[count] = x;
+                        ys[count++] = y;
+                    }
+                }
+            }
+
+            Graphics2D g = canvas.createGraphics();
+            int minX = 0;
+            int minY = 0;
+            int maxX = width - 1;
+            int maxY = height - 1;
+            if (all) {
+                renderer.drawTiles(g, shown, 0, 0, maxX, maxY);
+                renderer.drawPaint(g, shown, 0, 0, maxX, maxY);
+            } else {
+                minX = width;
+                minY = height;
+                maxX = -1;
+                maxY = -1;
+                for (int i = 0; i < count; i++) {
+                    int x = xs[i];
+                    int y = ys[i];
+                    renderer.drawTiles(g, shown, x, y, x, y);
+                    renderer.drawPaint(g, shown, x, y, x, y);
+                    minX = Math.min(minX, x);
+                    minY = Math.min(minY, y);
+                    maxX = Math.max(maxX, x);
+                    maxY = Math.max(maxY, y);
+                }
+            }
+            // Painters are drawn over their squares only where those were just redrawn, since
+            // drawing a sprite twice would darken its edges
+            for (int painter = 0; painter < painterCount; painter++) {
+                drawnXs[painter] = -1;
+                if (replayer.isPainterVisible(painter)) {
+                    int x = replayer.getPainterX(painter);
+                    int y = replayer.getPainterY(painter);
+                    Direction direction = replayer.getPainterDirection(painter);
+                    if (all || redrawn(x, y, count)) {
+                        renderer.drawPainter(g, x, y, direction);
+                    }
+                    drawnXs[painter] = x;
+                    drawnYs[painter] = y;
+                    drawnDirections[painter] = direction;
+                }
+            }
+            g.dispose();
+
+            if (whole) {
+                minX = 0;
+                minY = 0;
+                maxX = width - 1;
+                maxY = height - 1;
+            } else if (maxX < 0) {
+                return new Frame(null, 0, 0);
+            }
+            int left = minX * tileSize;
+            int top = minY * tileSize;
+            BufferedImage region = new BufferedImage((maxX - minX + 1) * tileSize,
+                (maxY - minY + 1) * tileSize, BufferedImage.TYPE_INT_RGB);
+            Graphics2D copy = region.createGraphics();
+            copy.drawImage(canvas, -left, -top, null);
+            copy.dispose();
+            return new Frame(region, left, top);
+        }
+
+        private boolean redrawn(int x, int y, int count) {
+            for (int i = 0; i < count; i++) {
+                if (xs[i] == x && ys[i] == y) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Writes frames as GIF images placed over the previous frame. Each image is held back until
+    // the next one arrives, so frames that change nothing can add their time to it.
+    private static final class GifEncoder implements FrameEncoder, AutoCloseable {
+        private static final String FORMAT = "javax_imageio_gif_image_1.0";
+
+        private final ImageWriter writer;
+        private final ImageOutputStream out;
+        private final int frameDelay;
+        private Frame held;
+        private int heldDelay;
+        int images;
+
+        GifEncoder(Path file, int frameDelay) throws IOException {
+            this.writer = ImageIO.getImageWritersByFormatName("gif").next();
+            this.out = ImageIO.createImageOutputStream(file.toFile());
+            if (out == null) {
+                throw new IOException("Cannot write " + file);
+            }
+            this.frameDelay = frameDelay;
+            writer.setOutput(out);
+            writer.prepareWriteSequence(null);
+        }
+
+        @Override
+        public void encode(Frame frame) throws IOException {
+            if (frame.image == null) {
+                heldDelay += frameDelay;
+                return;
+            }
+            writeHeld();
+            held = frame;
+            heldDelay = frameDelay;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writeHeld();
+            writer.endWriteSequence();
+        }
+
+        private void writeHeld() throws IOException {
+            if (held == null) {
+                return;
+            }
+            BufferedImage image = held.image;
+            ImageTypeSpecifier type = ImageTypeSpecifier.createFromRenderedImage(image);
+            IIOMetadata metadata = writer.getDefaultImageMetadata(type, null);
+            IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(FORMAT);
+
+            IIOMetadataNode descriptor = child(root, "ImageDescriptor");
+            descriptor.setAttribute("imageLeftPosition", Integer.toString(held.x));
+            descriptor.setAttribute("imageTopPosition", Integer.toString(held.y));
+            descriptor.setAttribute("imageWidth", Integer.toString(image.getWidth()));
+            descriptor.setAttribute("imageHeight", Integer.toString(image.getHeight()));
+            descriptor.setAttribute("interlaceFlag", "FALSE");
+
+            IIOMetadataNode control = child(root, "GraphicControlExtension");
+            control.setAttribute("disposalMethod", "doNotDispose");
+            control.setAttribute("userInputFlag", "FALSE");
+            control.setAttribute("transparentColorFlag", "FALSE");
+            control.setAttribute("transparentColorIndex", "0");
+            control.setAttribute("delayTime", Integer.toString(Math.min(heldDelay, 0xFFFF)));
+
+            if (images == 0) {
+                // Loop forever
+                IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+                loop.setAttribute("applicationID", "NETSCAPE");
+                loop.setAttribute("authenticationCode", "2.0");
+                loop.setUserObject(new byte[] {1, 0, 0});
+                child(root, "ApplicationExtensions").appendChild(loop);
+            }
+
+            metadata.setFromTree(FORMAT, root);
+            writer.writeToSequence(new IIOImage(image, null, metadata), null);
+            images++;
+            held = null;
+        }
+
+        private static IIOMetadataNode child(IIOMetadataNode root, String name) {
+            for (int i = 0; i < root.getLength(); i++) {
+                if (root.item(i).getNodeName().equals(name)) {
+                    return (IIOMetadataNode) root.item(i);
+                }
+            }
+            IIOMetadataNode node = new IIOMetadataNode(name);
+            root.appendChild(node);
+            return node;
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.dispose();
+            out.close();
+        }
+    }
+
+    // Writes whole frames as RGB bytes
+    private static final class RawEncoder implements FrameEncoder {
+        private final OutputStream out;
+        private final byte[] row;
+        int frames;
+
+        RawEncoder(OutputStream out, int width) {
+            this.out = out;
+            this.row = new byte[width * 3];
+        }
+
+        @Override
+        public void encode(Frame frame) throws IOException {
+            BufferedImage image = frame.image;
+            int width = image.getWidth();
+            int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            for (int y = 0, i = 0; y < image.getHeight(); y++) {
+                for (int x = 0, b = 0; x < width; x++, i++) {
+                    int rgb = pixels[i];
+                    row[b++] = (byte) (rgb >> 16);
+                    row[b++] = (byte) (rgb >> 8);
+                    row[b++] = (byte) rgb;
+                }
+                out.write(row);
+            }
+            frames++;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.flush();
+        }
+    }
+}
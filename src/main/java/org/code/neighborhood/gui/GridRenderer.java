@@ -0,0 +1,120 @@
+package org.code.neighborhood.gui;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+
+import javax.swing.UIManager;
+
+import org.code.neighborhood.support.Direction;
+import org.code.neighborhood.support.Grid;
+import org.code.neighborhood.support.Palette;
+
+// Draws the layers of a grid: the background, the tile sprites, the paint and the painters.
+// Shared by the window and by offscreen rendering, so both draw a grid the same way. Squares are
+// drawn tileSize pixels wide, scaling the sprites if that is not their own size.
+//
+// A renderer holds no drawing state, so threads can draw different parts of a grid with it at
+// the same time.
+final class GridRenderer {
+    private final int tileSize;
+    private final int gridWidth;
+    private final int gridHeight;
+    private final Map<Integer, BufferedImage> tileImages;
+    private final Map<String, BufferedImage> painterImages;
+    private final BufferedImage backgroundImage;
+    private final Color background;
+
+    GridRenderer(int gridWidth, int gridHeight, int tileSize, Color background) {
+        PainterAssets assets = PainterAssets.get();
+        this.tileSize = tileSize;
+        this.gridWidth = gridWidth;
+        this.gridHeight = gridHeight;
+        this.tileImages = assets.tileImages;
+        this.painterImages = assets.painterImages;
+        this.backgroundImage = assets.backgroundImage;
+        this.background = background;
+    }
+
+    // The window's background color, for drawing where there is no background image
+    static Color panelBackground() {
+        Color panel = UIManager.getColor("Panel.background");
+        return panel != null ? panel : Color.LIGHT_GRAY;
+    }
+
+    int getTileSize() {
+        return tileSize;
+    }
+
+    // Draws the background and tiles of the squares from (firstX, firstY) to (lastX, lastY)
+    void drawTiles(Graphics g, Grid grid, int firstX, int firstY, int lastX, int lastY) {
+        fillBackground(g, firstX, firstY, lastX + 1, lastY + 1);
+        for (int y = firstY; y <= lastY; y++) {
+            for (int x = firstX; x <= lastX; x++) {
+                drawTile(g, x, y, grid.assetId(x, y));
+            }
+        }
+    }
+
+    // Draws the paint on the squares from (firstX, firstY) to (lastX, lastY). Squares are read
+    // as palette indices, and each run of squares painted the same color is filled at once with
+    // the palette's Color.
+    void drawPaint(Graphics g, Grid grid, int firstX, int firstY, int lastX, int lastY) {
+        for (int y = firstY; y <= lastY; y++) {
+            int x = firstX;
+            while (x <= lastX) {
+                int index = grid.getPaletteIndex(x, y);
+                int runEnd = x + 1;
+                while (index > 0 && runEnd <= lastX && grid.getPaletteIndex(runEnd, y) == index) {
+                    runEnd++;
+                }
+                if (index != 0) {
+                    // Colors past the palette's capacity are read from the square
+                    g.setColor(index > 0 ? Palette.color(index) : grid.color(x, y));
+                    g.fillRect(x * tileSize, y * tileSize, (runEnd - x) * tileSize, tileSize);
+                }
+                x = runEnd;
+            }
+        }
+    }
+
+    void drawPainter(Graphics g, int x, int y, Direction direction) {
+        BufferedImage sprite =
+            painterImages.getOrDefault(direction.name(), painterImages.get("EAST"));
+        if (sprite != null) {
+            g.drawImage(sprite, x * tileSize, y * tileSize, tileSize, tileSize, null);
+        }
+    }
+
+    // Fills the squares from (fromX, fromY) up to but not including (toX, toY) with the
+    // background image, or the background color if there is none
+    void fillBackground(Graphics g, int fromX, int fromY, int toX, int toY) {
+        if (backgroundImage != null) {
+            drawBackground(g, fromX, fromY, toX, toY);
+        } else {
+            g.setColor(background);
+            g.fillRect(fromX * tileSize, fromY * tileSize,
+                (toX - fromX) * tileSize, (toY - fromY) * tileSize);
+        }
+    }
+
+    void drawTile(Graphics g, int x, int y, int assetId) {
+        BufferedImage tile = tileImages.get(assetId);
+        if (tile != null) {
+            g.drawImage(tile, x * tileSize, y * tileSize, tileSize, tileSize, null);
+        }
+    }
+
+    // Draws the part of the background, which is stretched over the whole grid, that lies under
+    // the squares from (fromX, fromY) up to but not including (toX, toY)
+    private void drawBackground(Graphics g, int fromX, int fromY, int toX, int toY) {
+        int imageWidth = backgroundImage.getWidth();
+        int imageHeight = backgroundImage.getHeight();
+        g.drawImage(backgroundImage,
+            fromX * tileSize, fromY * tileSize, toX * tileSize, toY * tileSize,
+            fromX * imageWidth / gridWidth, fromY * imageHeight / gridHeight,
+            toX * imageWidth / gridWidth, toY * imageHeight / gridHeight,
+            null);
+    }
+}
@@ -0,0 +1,168 @@
+package org.code.neighborhood.gui;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.code.neighborhood.Painter;
+import org.code.neighborhood.support.Direction;
+import org.code.neighborhood.support.Grid;
+import org.code.neighborhood.support.World;
+
+// Draws grids into images without a window, so it works with -Djava.awt.headless=true. Grids are
+// drawn by the same GridRenderer as the window, so an image looks like the final frame of the
+// window's playback.
+//
+// An image is drawn in bands of BAND_ROWS rows of squares, and the bands of a large grid are drawn
+// by a pool of threads at once. PNGs are encoded on a second pool, so the caller can render the
+// next grid while the last one is compressed; if the encoders fall behind, the caller encodes
+// its own image rather than queue up more.
+//
+//   try (OffscreenRenderer renderer = new OffscreenRenderer()) {
+//       for (BatchResult result : report.getResults()) {
+//           renderer.writePng(result.getGrid(), Path.of(result.getJob().getName() + ".png"));
+//       }
+//   }
+public class OffscreenRenderer implements AutoCloseable {
+    // Rows of squares drawn as one task
+    static final int BAND_ROWS = 16;
+
+    private final int tileSize;
+    private final Color background;
+    private final ExecutorService renderPool;
+    private final ExecutorService encoderPool;
+
+    // Draws squares at the window's size, on one thread per core, with half as many encoders
+    public OffscreenRenderer() {
+        this(PainterAssets.TILE_SIZE, Runtime.getRuntime().availableProcessors(),
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    // Draws squares tileSize pixels wide, so large maps can be drawn smaller than in the window
+    public OffscreenRenderer(int tileSize, int renderThreads, int encoderThreads) {
+        if (tileSize <= 0 || renderThreads <= 0 || encoderThreads <= 0) {
+            throw new IllegalArgumentException("sizes and thread counts must be positive");
+        }
+        this.tileSize = tileSize;
+        this.background = GridRenderer.panelBackground();
+        this.renderPool = new ThreadPoolExecutor(renderThreads, renderThreads, 0,
+            TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            daemonThreads("neighborhood-render"));
+        this.encoderPool = new ThreadPoolExecutor(encoderThreads, encoderThreads, 0,
+            TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(encoderThreads * 2),
+            daemonThreads("neighborhood-png"), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    // Draws a world's grid and the given painters
+    public BufferedImage render(World world, Painter... painters) {
+        return render(world.getGrid(), painters);
+    }
+
+    // Draws a grid and the given painters, waiting for every band to be drawn
+    public BufferedImage render(Grid grid, Painter... painters) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        BufferedImage image =
+            new BufferedImage(width * tileSize, height * tileSize, BufferedImage.TYPE_INT_RGB);
+        GridRenderer renderer = new GridRenderer(width, height, tileSize, background);
+
+        List<Future<?>> bands = new ArrayList<>();
+        for (int firstY = BAND_ROWS; firstY < height; firstY += BAND_ROWS) {
+            int bandFirstY = firstY;
+            bands.add(renderPool.submit(
+                () -> drawBand(renderer, image, grid, painters, bandFirstY)));
+        }
+        // The caller draws the first band itself rather than sit idle
+        drawBand(renderer, image, grid, painters, 0);
+        try {
+            for (Future<?> band : bands) {
+                band.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Future<?> band : bands) {
+                band.cancel(true);
+            }
+            throw new IllegalStateException("interrupted while rendering", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return image;
+    }
+
+    // Draws a grid and the given painters, then writes the image as a PNG in the background. The
+    // returned future completes with the file once it is written.
+    public Future<Path> writePng(Grid grid, Path file, Painter... painters) {
+        BufferedImage image = render(grid, painters);
+        return encoderPool.submit(() -> {
+            if (!ImageIO.write(image, "png", file.toFile())) {
+                throw new IOException("no PNG writer available");
+            }
+            return file;
+        });
+    }
+
+    public Future<Path> writePng(World world, Path file, Painter... painters) {
+        return writePng(world.getGrid(), file, painters);
+    }
+
+    // Draws the rows from firstY to the end of its band. Bands cover separate pixels of the image,
+    // so they can be drawn at the same time, each through its own Graphics.
+    private static void drawBand(GridRenderer renderer, BufferedImage image, Grid grid,
+            Painter[] painters, int firstY) {
+        int lastX = grid.getWidth() - 1;
+        int lastY = Math.min(grid.getHeight(), firstY + BAND_ROWS) - 1;
+        Graphics2D g = image.createGraphics();
+        try {
+            renderer.drawTiles(g, grid, 0, firstY, lastX, lastY);
+            renderer.drawPaint(g, grid, 0, firstY, lastX, lastY);
+            for (Painter painter : painters) {
+                int y = painter.getY();
+                if (y >= firstY && y <= lastY) {
+                    renderer.drawPainter(g, painter.getX(), y,
+                        Direction.fromString(painter.getDirection()));
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    // Stops the render threads and waits for the PNGs already started to be written
+    @Override
+    public void close() {
+        renderPool.shutdown();
+        encoderPool.shutdown();
+        try {
+            encoderPool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
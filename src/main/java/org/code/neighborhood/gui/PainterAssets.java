@@ -0,0 +1,95 @@
+package org.code.neighborhood.gui;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+// The background, tile sprites and painter sprites. They are decoded from disk once per JVM,
+// the first time anything is drawn, and shared by every visualizer.
+final class PainterAssets {
+    static final int TILE_SIZE = 32;
+    private static PainterAssets instance;
+
+    final Map<Integer, BufferedImage> tileImages;
+    final Map<String, BufferedImage> painterImages;
+    final BufferedImage backgroundImage;
+
+    private PainterAssets() {
+        Map<Integer, BufferedImage> tiles = new HashMap<>();
+        Map<String, BufferedImage> painters = new HashMap<>();
+        loadPainterImages(painters);
+
+        BufferedImage background = null;
+        try {
+            background = ImageIO.read(new File("src/main/resources/background.png"));
+        } catch (IOException e) {
+            System.err.println("Failed to load background image: " + e.getMessage());
+        }
+
+        try {
+            BufferedImage spriteSheet = ImageIO.read(new File("src/main/resources/sprite_sheet.png"));
+            int tilesPerRow = spriteSheet.getWidth() / TILE_SIZE;
+            int tilesPerCol = spriteSheet.getHeight() / TILE_SIZE;
+
+            int assetId = 0;
+            for (int y = 0; y < tilesPerCol; y++) {
+                for (int x = 0; x < tilesPerRow; x++) {
+                    BufferedImage tile = spriteSheet.getSubimage(
+                        x * TILE_SIZE, y * TILE_SIZE, TILE_SIZE, TILE_SIZE
+                    );
+                    tiles.put(assetId, tile);
+                    assetId++;
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error loading images: " + e.getMessage());
+        }
+
+        this.tileImages = Collections.unmodifiableMap(tiles);
+        this.painterImages = Collections.unmodifiableMap(painters);
+        this.backgroundImage = background;
+    }
+
+    static synchronized PainterAssets get() {
+        if (instance == null) {
+            instance = new PainterAssets();
+        }
+        return instance;
+    }
+
+    private static void loadPainterImages(Map<String, BufferedImage> painterImages) {
+        try {
+            BufferedImage base = ImageIO.read(new File("src/main/resources/painter.png"));
+            painterImages.put("EAST", base);
+            painterImages.put("NORTH", rotateImage(base, -90));
+            painterImages.put("SOUTH", rotateImage(base, 90));
+            painterImages.put("WEST", rotateImage(base, 180));
+        } catch (IOException e) {
+            System.err.println("Painter image load failed: " + e.getMessage());
+        }
+    }
+
+    private static BufferedImage rotateImage(BufferedImage img, double angleDegrees) {
+        int size = TILE_SIZE;
+        BufferedImage rotated = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = rotated.createGraphics();
+
+        AffineTransform at = new AffineTransform();
+        at.translate(size / 2.0, size / 2.0);
+        at.rotate(Math.toRadians(angleDegrees));
+        at.translate(-img.getWidth() / 2.0, -img.getHeight() / 2.0);
+
+        g2d.setTransform(at);
+        g2d.drawImage(img, 0, 0, null);
+        g2d.dispose();
+
+        return rotated;
+    }
+}
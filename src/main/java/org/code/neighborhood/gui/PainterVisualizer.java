@@ -3,137 +3,324 @@ package org.code.neighborhood.gui;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.geom.AffineTransform;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
-import javax.imageio.ImageIO;
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 import org.code.neighborhood.Painter;
-import org.code.neighborhood.support.GridSquare;
+import org.code.neighborhood.support.Direction;
+import org.code.neighborhood.support.DirtySquares;
+import org.code.neighborhood.support.Grid;
+import org.code.neighborhood.support.PlaybackQueue;
 
+// Shows a world and the painters in it. Painter actions take effect on the world immediately and
+// are queued in a PlaybackQueue; a Swing timer plays them back one step per delay, so the program
+// never waits for the display. Space pauses, the right arrow steps, End skips to the end, and
+// + / - change the playback speed.
 public class PainterVisualizer extends JPanel {
-    private final List<Painter> painters;
-    private final int tileSize = 32;
-    private final Map<Integer, BufferedImage> tileImages = new HashMap<>();
-    private final Map<String, BufferedImage> painterImages = new HashMap<>();
-    private BufferedImage backgroundImage;
+    // Timer ticks shorter than this play several steps per tick instead
+    private static final int MIN_TICK_MILLIS = 10;
+    private static final double MAX_SPEED = 64;
+
+    private final Map<Painter, Integer> painterSlots;
+    private final int tileSize = PainterAssets.TILE_SIZE;
+    // Set with the playback queue, once the grid's size is known
+    private GridRenderer renderer;
+    private volatile PlaybackQueue playback;
+    // Set once the window is closed, after which actions are no longer queued
+    private volatile boolean closed;
     private int gridWidth;
     private int gridHeight;
+    private final int[] dirtyXs = new int[DirtySquares.CAPACITY];
+    private final int[] dirtyYs = new int[DirtySquares.CAPACITY];
+    // Shows the displayed grid's statistics below it
+    private final JLabel statusBar = new JLabel(" ");
+    // Grids with more pixels than this are drawn directly instead of through a cached tile layer
+    private static final long MAX_TILE_LAYER_PIXELS = 32L * 1024 * 1024;
+    // Background and tiles composed into one image, and the asset drawn for each square in it
+    private BufferedImage tileLayer;
+    private int[] tileLayerAssets;
+
+    // Playback state, only touched on the Swing thread
+    private final Timer timer;
+    private int stepDelay = 300;
+    private double speed = 1;
+    private int stepsPerTick = 1;
+    private boolean paused;
 
     public PainterVisualizer() {
-        this.painters = new ArrayList<>();
-        loadPainterImages();
-
-        try {
-            backgroundImage = ImageIO.read(new File("src/main/resources/background.png"));
-        } catch (IOException e) {
-            System.err.println("Failed to load background image: " + e.getMessage());
-        }
-
-        try {
-            BufferedImage spriteSheet = ImageIO.read(new File("src/main/resources/sprite_sheet.png"));
-            int tilesPerRow = spriteSheet.getWidth() / tileSize;
-            int tilesPerCol = spriteSheet.getHeight() / tileSize;
-
-            int assetId = 0;
-            for (int y = 0; y < tilesPerCol; y++) {
-                for (int x = 0; x < tilesPerRow; x++) {
-                    BufferedImage tile = spriteSheet.getSubimage(
-                        x * tileSize, y * tileSize, tileSize, tileSize
-                    );
-                    tileImages.put(assetId, tile);
-                    assetId++;
-                }
+        this.painterSlots = new IdentityHashMap<>();
+        this.timer = new Timer(stepDelay, e -> playTick());
+        bindKey(KeyEvent.VK_SPACE, "togglePause", () -> setPaused(!paused));
+        bindKey(KeyEvent.VK_RIGHT, "step", this::step);
+        bindKey(KeyEvent.VK_END, "skipToEnd", this::skipToEnd);
+        bindKey(KeyEvent.VK_EQUALS, "speedUp", () -> setSpeed(speed * 2));
+        bindKey(KeyEvent.VK_ADD, "speedUp", () -> setSpeed(speed * 2));
+        bindKey(KeyEvent.VK_MINUS, "slowDown", () -> setSpeed(speed / 2));
+        bindKey(KeyEvent.VK_SUBTRACT, "slowDown", () -> setSpeed(speed / 2));
+    }
+
+    private void bindKey(int keyCode, String name, Runnable action) {
+        getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(keyCode, 0), name);
+        getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                action.run();
             }
-        } catch (Exception e) {
-            System.err.println("Error loading images: " + e.getMessage());
+        });
+    }
+
+    public synchronized void addPainter(Painter painter) {
+        if (playback == null) {
+            Grid grid = painter.getGrid();
+            this.gridWidth = grid.getWidth();
+            this.gridHeight = grid.getHeight();
+            PlaybackQueue queue = new PlaybackQueue(grid);
+            queue.getDisplayGrid().getDirtySquares().startTracking();
+            this.renderer = new GridRenderer(gridWidth, gridHeight, tileSize, getBackground());
+            this.playback = queue;
+            SwingUtilities.invokeLater(() -> {
+                setPreferredSize(new Dimension(tileSize * gridWidth, tileSize * gridHeight));
+                repaint();
+                timer.start();
+            });
         }
+        Direction direction = Direction.fromString(painter.getDirection());
+        painterSlots.put(painter, playback.addPainter(painter.getX(), painter.getY(), direction));
+    }
+
+    // Queues the painter's state after an action for playback. squareChanged says whether the
+    // action changed the square the painter is standing on.
+    public synchronized void recordAction(Painter painter, Direction direction, boolean squareChanged) {
+        Integer slot = painterSlots.get(painter);
+        if (slot != null && !closed) {
+            playback.record(slot, painter.getX(), painter.getY(), direction, squareChanged);
+        }
+    }
+
+    // Queues an action that painted many squares with one color, given as (y, fromX, toX) row
+    // spans. It plays back as one step with one repaint.
+    public synchronized void recordSpans(Painter painter, Direction direction, int argb, int[] spans) {
+        Integer slot = painterSlots.get(painter);
+        if (slot != null && !closed) {
+            playback.recordSpans(slot, painter.getX(), painter.getY(), direction, argb, spans);
+        }
+    }
+
+    // Stops playback for good once the window is closed. Painters waiting for room in the queue
+    // are let go, and later actions are not queued, so no painter waits on a window that is gone.
+    // Not synchronized, since a painter waiting for room holds this visualizer's lock.
+    public void close() {
+        closed = true;
+        timer.stop();
+        PlaybackQueue queue = playback;
+        if (queue != null) {
+            queue.playAll();
+        }
+    }
+
+    // Sets how long each queued action is shown for, before any speed-up
+    public void setStepDelay(int delay) {
+        SwingUtilities.invokeLater(() -> {
+            this.stepDelay = Math.max(0, delay);
+            updateTimer();
+        });
+    }
+
+    // The playback controls below must be called on the Swing thread
+
+    // Multiplies the playback rate; 2 plays twice as fast as the painters' delay
+    public void setSpeed(double speed) {
+        this.speed = Math.max(1 / MAX_SPEED, Math.min(MAX_SPEED, speed));
+        updateTimer();
+    }
+
+    public double getSpeed() {
+        return this.speed;
+    }
+
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    public boolean isPaused() {
+        return this.paused;
     }
 
-    public void addPainter(Painter painter) {
-        this.painters.add(painter);
-        if (painters.size() == 1) {
-            this.gridWidth = painter.getGrid().getWidth();
-            this.gridHeight = painter.getGrid().getHeight();
-            setPreferredSize(new Dimension(tileSize * gridWidth, tileSize * gridHeight));
+    // Plays one queued action, whether or not playback is paused
+    public void step() {
+        if (playback != null && playback.playNext()) {
+            repaintDirtySquares();
         }
-        repaint();
     }
 
-    private void loadPainterImages() {
-        try {
-            BufferedImage base = ImageIO.read(new File("src/main/resources/painter.png"));
-            painterImages.put("EAST", base);
-            painterImages.put("NORTH", rotateImage(base, -90));
-            painterImages.put("SOUTH", rotateImage(base, 90));
-            painterImages.put("WEST", rotateImage(base, 180));
-        } catch (IOException e) {
-            System.err.println("Painter image load failed: " + e.getMessage());
+    // Plays every queued action at once
+    public void skipToEnd() {
+        if (playback != null) {
+            playback.playAll();
+            repaintDirtySquares();
         }
     }
 
-    private BufferedImage rotateImage(BufferedImage img, double angleDegrees) {
-        int size = tileSize;
-        BufferedImage rotated = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = rotated.createGraphics();
+    private void updateTimer() {
+        double interval = stepDelay / speed;
+        if (interval >= MIN_TICK_MILLIS) {
+            timer.setDelay((int) interval);
+            stepsPerTick = 1;
+        } else {
+            timer.setDelay(MIN_TICK_MILLIS);
+            stepsPerTick = interval <= 0
+                ? Integer.MAX_VALUE
+                : (int) Math.ceil(MIN_TICK_MILLIS / interval);
+        }
+    }
 
-        AffineTransform at = new AffineTransform();
-        at.translate(size / 2.0, size / 2.0);
-        at.rotate(Math.toRadians(angleDegrees));
-        at.translate(-img.getWidth() / 2.0, -img.getHeight() / 2.0);
+    private void playTick() {
+        if (paused || playback == null) {
+            return;
+        }
+        boolean played = false;
+        for (int i = 0; i < stepsPerTick && playback.playNext(); i++) {
+            played = true;
+        }
+        if (played) {
+            repaintDirtySquares();
+        }
+    }
 
-        g2d.setTransform(at);
-        g2d.drawImage(img, 0, 0, null);
-        g2d.dispose();
+    // A line of text showing how much of the displayed grid is painted and how much paint is
+    // left, kept up to date as actions play back
+    public JLabel getStatusBar() {
+        return statusBar;
+    }
 
-        return rotated;
+    // Redraws only the squares that changed since the last call. Must run on the Swing thread.
+    public void repaintDirtySquares() {
+        if (playback == null) {
+            return;
+        }
+        // The statistics are kept up to date as squares change, so this never scans the grid
+        statusBar.setText(playback.getDisplayGrid().getStats().toString());
+        int count = playback.getDisplayGrid().getDirtySquares().drain(dirtyXs, dirtyYs);
+        if (count < 0) {
+            repaint();
+            return;
+        }
+        // Painting each square right away keeps Swing from merging distant squares into one
+        // large dirty rectangle
+        for (int i = 0; i < count; i++) {
+            paintImmediately(dirtyXs[i] * tileSize, dirtyYs[i] * tileSize, tileSize, tileSize);
+        }
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        if (!painters.isEmpty()) {
-            Painter ref = painters.get(0);
+        PlaybackQueue playback = this.playback;
+        if (playback != null) {
+            Grid grid = playback.getDisplayGrid();
 
-            if (backgroundImage != null) {
-                g.drawImage(backgroundImage, 0, 0, gridWidth * tileSize, gridHeight * tileSize, null);
+            // Only the squares inside the clip need to be drawn
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, gridWidth * tileSize, gridHeight * tileSize);
+            }
+            int firstX = Math.max(0, clip.x / tileSize);
+            int firstY = Math.max(0, clip.y / tileSize);
+            int lastX = Math.min(gridWidth - 1, (clip.x + clip.width - 1) / tileSize);
+            int lastY = Math.min(gridHeight - 1, (clip.y + clip.height - 1) / tileSize);
+            if (lastX < firstX || lastY < firstY) {
+                return;
             }
 
+            if (useTileLayer()) {
+                updateTileLayer(grid, firstX, firstY, lastX, lastY);
+                int left = firstX * tileSize;
+                int top = firstY * tileSize;
+                int right = (lastX + 1) * tileSize;
+                int bottom = (lastY + 1) * tileSize;
+                g.drawImage(tileLayer, left, top, right, bottom, left, top, right, bottom, null);
+            } else {
+                renderer.drawTiles(g, grid, firstX, firstY, lastX, lastY);
+            }
+            renderer.drawPaint(g, grid, firstX, firstY, lastX, lastY);
+
+            for (int slot = 0, count = playback.painterCount(); slot < count; slot++) {
+                int painterX = playback.painterX(slot);
+                int painterY = playback.painterY(slot);
+                if (playback.isPainterVisible(slot)
+                        && painterX >= firstX && painterX <= lastX
+                        && painterY >= firstY && painterY <= lastY) {
+                    renderer.drawPainter(g, painterX, painterY, playback.painterDirection(slot));
+                }
+            }
+        }
+    }
+
+    private boolean useTileLayer() {
+        return (long) gridWidth * gridHeight * tileSize * tileSize <= MAX_TILE_LAYER_PIXELS;
+    }
+
+    // Keeps the cached tile layer in step with the grid. The layer is composed once; after that
+    // only squares inside the given range whose asset changed are redrawn into it.
+    private void updateTileLayer(Grid grid, int firstX, int firstY, int lastX, int lastY) {
+        if (tileLayer == null
+                || tileLayer.getWidth() != gridWidth * tileSize
+                || tileLayer.getHeight() != gridHeight * tileSize) {
+            tileLayer = createLayerImage(gridWidth * tileSize, gridHeight * tileSize);
+            tileLayerAssets = new int[gridWidth * gridHeight];
+            Graphics2D layer = tileLayer.createGraphics();
+            renderer.fillBackground(layer, 0, 0, gridWidth, gridHeight);
             for (int y = 0; y < gridHeight; y++) {
                 for (int x = 0; x < gridWidth; x++) {
-                    try {
-                        GridSquare square = ref.getGrid().getSquare(x, y);
-                        BufferedImage tile = tileImages.get(square.getAssetID());
-                        if (tile != null) {
-                            g.drawImage(tile, x * tileSize, y * tileSize, tileSize, tileSize, null);
-                        }
-                        if (square.getColor() != null) {
-                            g.setColor(square.getColor());
-                            g.fillRect(x * tileSize, y * tileSize, tileSize, tileSize);
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Invalid square at (" + x + "," + y + ")");
-                    }
+                    int assetId = grid.assetId(x, y);
+                    renderer.drawTile(layer, x, y, assetId);
+                    tileLayerAssets[y * gridWidth + x] = assetId;
                 }
             }
+            layer.dispose();
+            return;
+        }
 
-            for (Painter painter : painters) {
-                String dir = painter.getDirection().toString().toUpperCase();
-                BufferedImage sprite = painterImages.getOrDefault(dir, painterImages.get("EAST"));
-                if (sprite != null) {
-                    Graphics2D g2d = (Graphics2D) g;
-                    AffineTransform at = AffineTransform.getTranslateInstance(
-                        painter.getX() * tileSize, painter.getY() * tileSize);
-                    g2d.drawImage(sprite, at, null);
+        Graphics2D layer = null;
+        for (int y = firstY; y <= lastY; y++) {
+            for (int x = firstX; x <= lastX; x++) {
+                int assetId = grid.assetId(x, y);
+                if (assetId != tileLayerAssets[y * gridWidth + x]) {
+                    if (layer == null) {
+                        layer = tileLayer.createGraphics();
+                    }
+                    renderer.fillBackground(layer, x, y, x + 1, y + 1);
+                    renderer.drawTile(layer, x, y, assetId);
+                    tileLayerAssets[y * gridWidth + x] = assetId;
                 }
             }
         }
+        if (layer != null) {
+            layer.dispose();
+        }
+    }
+
+    // Creates an opaque image in the display's native format, so Java2D can keep it in video
+    // memory and draw it with a plain copy
+    private BufferedImage createLayerImage(int width, int height) {
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        if (config != null) {
+            return config.createCompatibleImage(width, height, Transparency.OPAQUE);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
     }
-} 
+}
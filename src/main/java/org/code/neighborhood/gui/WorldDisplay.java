@@ -0,0 +1,64 @@
+package org.code.neighborhood.gui;
+
+import java.awt.BorderLayout;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.swing.JFrame;
+
+import org.code.neighborhood.support.Grid;
+import org.code.neighborhood.support.World;
+
+// Opens one window per World. Every painter in a world registers with the same visualizer
+// instead of opening a window of its own.
+//
+// A visualizer reaches its world through its painters, so the map holds visualizers weakly;
+// otherwise no world that was ever shown could be collected. The window keeps its visualizer
+// alive while it is open. Closing it drops the entry and stops the visualizer, and closing the
+// last open window ends the program, as closing the only window always has.
+public final class WorldDisplay {
+    private static final Map<World, WeakReference<PainterVisualizer>> visualizers =
+        new WeakHashMap<>();
+
+    private WorldDisplay() {}
+
+    // Returns the visualizer showing the given world, opening its window the first time
+    public static synchronized PainterVisualizer visualizerFor(World world) {
+        WeakReference<PainterVisualizer> shown = visualizers.get(world);
+        PainterVisualizer visualizer = shown != null ? shown.get() : null;
+        if (visualizer == null) {
+            Grid grid = world.getGrid();
+            int tileSize = PainterAssets.TILE_SIZE;
+            visualizer = new PainterVisualizer();
+            JFrame frame = new JFrame("Neighborhood Simulator");
+            frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+            frame.getContentPane().add(visualizer, BorderLayout.CENTER);
+            frame.getContentPane().add(visualizer.getStatusBar(), BorderLayout.SOUTH);
+            int statusHeight = visualizer.getStatusBar().getPreferredSize().height;
+            frame.setSize(grid.getWidth() * tileSize + 16,
+                grid.getHeight() * tileSize + 39 + statusHeight); // border padding
+            PainterVisualizer closing = visualizer;
+            frame.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosed(WindowEvent e) {
+                    closing.close();
+                    boolean lastWindow;
+                    synchronized (WorldDisplay.class) {
+                        visualizers.remove(world);
+                        lastWindow = visualizers.values().stream()
+                            .allMatch(shownVisualizer -> shownVisualizer.get() == null);
+                    }
+                    if (lastWindow) {
+                        System.exit(0);
+                    }
+                }
+            });
+            frame.setVisible(true);
+            visualizers.put(world, new WeakReference<>(visualizer));
+        }
+        return visualizer;
+    }
+}
@@ -0,0 +1,115 @@
+package org.code.neighborhood.support;
+
+// Keeps every square in flat primitive arrays indexed by y * width + x. Copies share their
+// arrays until one of them is written to, which then clones them, so a copy costs nothing up
+// front and a grid that is never painted is never cloned.
+class ArrayGridStorage extends GridStorage {
+  private final int width;
+  private byte[] squareTypes;
+  private int[] colors;
+  private short[] paintCounts;
+  private short[] assetIds;
+  // Set while the arrays may be referenced by another storage and must be cloned before a write
+  private volatile boolean shared;
+
+  ArrayGridStorage(int width, int height) {
+    int size = width * height;
+    this.width = width;
+    this.squareTypes = new byte[size];
+    this.colors = new int[size];
+    this.paintCounts = new short[size];
+    this.assetIds = new short[size];
+  }
+
+  private ArrayGridStorage(ArrayGridStorage other) {
+    this.width = other.width;
+    this.squareTypes = other.squareTypes;
+    this.colors = other.colors;
+    this.paintCounts = other.paintCounts;
+    this.assetIds = other.assetIds;
+    this.shared = true;
+  }
+
+  // Clones the arrays if they are shared. Only the first write after a copy locks, so that
+  // threads writing at the same time share a single clone.
+  private void ensureWritable() {
+    if (this.shared) {
+      synchronized (this) {
+        if (this.shared) {
+          this.squareTypes = this.squareTypes.clone();
+          this.colors = this.colors.clone();
+          this.paintCounts = this.paintCounts.clone();
+          this.assetIds = this.assetIds.clone();
+          this.shared = false;
+        }
+      }
+    }
+  }
+
+  @Override
+  int squareType(int x, int y) {
+    return this.squareTypes[y * width + x];
+  }
+
+  @Override
+  int color(int x, int y) {
+    return this.colors[y * width + x];
+  }
+
+  @Override
+  void setColor(int x, int y, int argb) {
+    this.ensureWritable();
+    this.colors[y * width + x] = argb;
+  }
+
+  @Override
+  int paintCount(int x, int y) {
+    return this.paintCounts[y * width + x];
+  }
+
+  @Override
+  void setPaintCount(int x, int y, int paintCount) {
+    this.ensureWritable();
+    this.paintCounts[y * width + x] = (short) paintCount;
+  }
+
+  @Override
+  int assetId(int x, int y) {
+    return this.assetIds[y * width + x];
+  }
+
+  @Override
+  void setAssetId(int x, int y, int assetId) {
+    this.ensureWritable();
+    this.assetIds[y * width + x] = (short) assetId;
+  }
+
+  @Override
+  void initSquare(int x, int y, int squareType, int assetId, int paintCount) {
+    this.ensureWritable();
+    int index = y * width + x;
+    this.squareTypes[index] = (byte) squareType;
+    this.colors[index] = Grid.NO_COLOR;
+    this.paintCounts[index] = (short) paintCount;
+    this.assetIds[index] = (short) assetId;
+  }
+
+  @Override
+  void readColors(int y, int[] row) {
+    System.arraycopy(this.colors, y * width, row, 0, width);
+  }
+
+  @Override
+  void readPaintCounts(int y, int[] row) {
+    short[] paintCounts = this.paintCounts;
+    for (int x = 0, at = y * width; x < width; x++, at++) {
+      row[x] = paintCounts[at];
+    }
+  }
+
+  @Override
+  GridStorage copy() {
+    this.shared = true;
+    return new ArrayGridStorage(this);
+  }
+}
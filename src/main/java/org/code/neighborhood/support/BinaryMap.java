@@ -0,0 +1,144 @@
+package org.code.neighborhood.support;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Reads and writes compiled binary maps (.nbmap). A compiled map opens in constant time: the
+// file is memory-mapped and squares are paged in by the operating system as painters reach them.
+//
+// Layout, little-endian:
+//   0   magic "NBMP"
+//   4   int format version
+//   8   int width
+//   12  int height
+//   16  int[width * height]   ARGB colors, 0 for unpainted
+//       short[width * height] paint counts
+//       short[width * height] asset ids
+//       byte[width * height]  square types (tileType 0-5, 6 for unknown tiles)
+// Each plane is indexed by y * width + x, matching Grid's in-memory layout.
+public final class BinaryMap {
+  public static final String EXTENSION = ".nbmap";
+  static final int HEADER_SIZE = 16;
+  private static final byte[] MAGIC = {'N', 'B', 'M', 'P'};
+  private static final int VERSION = 1;
+  private static final int BYTES_PER_SQUARE = 9;
+
+  private BinaryMap() {}
+
+  // Compiles a map in the JSON schema read by GridFactory into the binary format
+  public static void compile(Path jsonMap, Path binaryMap) throws IOException {
+    write(new GridFactory().createGridFromFile(jsonMap), binaryMap);
+  }
+
+  // Writes the current state of a grid, including any paint, in the binary format. The map is
+  // written to a temporary file that then replaces the old one, so grids already mapped from
+  // the old file keep reading it unchanged.
+  static void write(Grid grid, Path path) throws IOException {
+    int width = grid.getWidth();
+    int height = grid.getHeight();
+    long fileSize = fileSize(width, height);
+    if (fileSize > Integer.MAX_VALUE) {
+      throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
+    }
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      buffer.put(MAGIC).putInt(VERSION).putInt(width).putInt(height);
+      GridStorage storage = grid.storage();
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          buffer.putInt(storage.color(x, y));
+        }
+      }
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          buffer.putShort((short) storage.paintCount(x, y));
+        }
+      }
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          buffer.putShort((short) storage.assetId(x, y));
+        }
+      }
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          buffer.put((byte) storage.squareType(x, y));
+        }
+      }
+      buffer.force();
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(temp);
+      throw e;
+    }
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  // Opens a compiled map as a grid backed by a private memory mapping of the file
+  static Grid map(Path path) throws IOException {
+    BufferGridStorage storage = mapStorage(path);
+    return new Grid(storage.width(), storage.height(), storage);
+  }
+
+  static BufferGridStorage mapStorage(Path path) throws IOException {
+    // A private mapping pages squares in lazily and keeps paint out of the file, but needs a
+    // channel that is open for writing. Read-only map files are mapped read-only instead, and
+    // the storage copies them to memory the first time a square changes.
+    FileChannel.MapMode mode = Files.isWritable(path)
+        ? FileChannel.MapMode.PRIVATE
+        : FileChannel.MapMode.READ_ONLY;
+    try (FileChannel channel = mode == FileChannel.MapMode.PRIVATE
+        ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+        : FileChannel.open(path, StandardOpenOption.READ)) {
+      long fileSize = channel.size();
+      if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+        throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
+      }
+      MappedByteBuffer buffer = channel.map(mode, 0, fileSize);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      for (int i = 0; i < MAGIC.length; i++) {
+        if (buffer.get(i) != MAGIC[i]) {
+          throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
+        }
+      }
+      int width = buffer.getInt(8);
+      int height = buffer.getInt(12);
+      if (buffer.getInt(4) != VERSION || width <= 0 || height <= 0
+          || fileSize != fileSize(width, height)) {
+        throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
+      }
+      return new BufferGridStorage(buffer, width, height, true);
+    }
+  }
+
+  // Returns true if the path names a compiled binary map
+  public static boolean isBinaryMap(Path path) {
+    return path.getFileName() != null && path.getFileName().toString().endsWith(EXTENSION);
+  }
+
+  private static long fileSize(int width, int height) {
+    return HEADER_SIZE + (long) width * height * BYTES_PER_SQUARE;
+  }
+
+  // Compiles a JSON map: java org.code.neighborhood.support.BinaryMap my-map.json [my-map.nbmap]
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0 || args.length > 2) {
+      System.err.println("Usage: BinaryMap <map.json> [<map" + EXTENSION + ">]");
+      System.exit(1);
+    }
+    Path jsonMap = Paths.get(args[0]);
+    Path binaryMap = args.length == 2
+        ? Paths.get(args[1])
+        : Paths.get(args[0].replaceFirst("\\.json$", "") + EXTENSION);
+    compile(jsonMap, binaryMap);
+    System.out.println("Compiled " + jsonMap + " to " + binaryMap);
+  }
+}
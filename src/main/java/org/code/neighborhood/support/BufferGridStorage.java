@@ -0,0 +1,206 @@
+package org.code.neighborhood.support;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Keeps every square in a ByteBuffer laid out as in the binary map format: after the header
+// come planes of int colors, short paint counts, short asset ids and byte square types, each
+// indexed by y * width + x. When the buffer is a mapping of a .nbmap file, squares are paged in
+// from disk only as they are touched and painting never writes back to the file.
+//
+// A mapping, or a buffer shared with a copy, is never written. Instead the storage copies out
+// each PAGE_SIZE page of it the first time it writes there, so a world painting a few squares
+// of a large map holds a few pages in memory rather than the whole map.
+class BufferGridStorage extends GridStorage {
+  static final int PAGE_SHIFT = 14;
+  private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+  private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+  // The buffer the squares were loaded into, shared with copies of this storage
+  private volatile ByteBuffer base;
+  // Set while the base is private to this storage and can be written in place
+  private volatile boolean baseOwned;
+  // The pages copied out of the base, or null for pages still read from it. Read-only pages are
+  // shared with a copy and are copied again before being written.
+  private final AtomicReferenceArray<ByteBuffer> pages;
+  private final int width;
+  private final int height;
+  private final int paintOffset;
+  private final int assetOffset;
+  private final int typeOffset;
+
+  // mapped is true if the buffer is a mapping of a .nbmap file
+  BufferGridStorage(ByteBuffer buffer, int width, int height, boolean mapped) {
+    this(buffer.order(ByteOrder.LITTLE_ENDIAN), width, height,
+        !mapped && !buffer.isReadOnly(),
+        new AtomicReferenceArray<>((buffer.capacity() + PAGE_MASK) >> PAGE_SHIFT));
+  }
+
+  private BufferGridStorage(ByteBuffer base, int width, int height, boolean baseOwned,
+      AtomicReferenceArray<ByteBuffer> pages) {
+    int size = width * height;
+    this.base = base;
+    this.baseOwned = baseOwned;
+    this.pages = pages;
+    this.width = width;
+    this.height = height;
+    this.paintOffset = BinaryMap.HEADER_SIZE + size * 4;
+    this.assetOffset = this.paintOffset + size * 2;
+    this.typeOffset = this.assetOffset + size * 2;
+  }
+
+  int width() {
+    return this.width;
+  }
+
+  int height() {
+    return this.height;
+  }
+
+  // Returns how many pages this storage has copied out of the base and not shared since
+  int privatePageCount() {
+    int count = 0;
+    for (int i = 0; i < this.pages.length(); i++) {
+      ByteBuffer page = this.pages.get(i);
+      if (page != null && !page.isReadOnly()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  int squareType(int x, int y) {
+    int at = typeOffset + y * width + x;
+    ByteBuffer page = this.pages.get(at >> PAGE_SHIFT);
+    return page == null ? this.base.get(at) : page.get(at & PAGE_MASK);
+  }
+
+  @Override
+  int color(int x, int y) {
+    int at = BinaryMap.HEADER_SIZE + (y * width + x) * 4;
+    ByteBuffer page = this.pages.get(at >> PAGE_SHIFT);
+    return page == null ? this.base.getInt(at) : page.getInt(at & PAGE_MASK);
+  }
+
+  @Override
+  void setColor(int x, int y, int argb) {
+    int at = BinaryMap.HEADER_SIZE + (y * width + x) * 4;
+    ByteBuffer page = this.writablePage(at);
+    if (page == null) {
+      this.base.putInt(at, argb);
+    } else {
+      page.putInt(at & PAGE_MASK, argb);
+    }
+  }
+
+  @Override
+  int paintCount(int x, int y) {
+    return this.getShort(paintOffset + (y * width + x) * 2);
+  }
+
+  @Override
+  void setPaintCount(int x, int y, int paintCount) {
+    this.putShort(paintOffset + (y * width + x) * 2, paintCount);
+  }
+
+  @Override
+  int assetId(int x, int y) {
+    return this.getShort(assetOffset + (y * width + x) * 2);
+  }
+
+  @Override
+  void setAssetId(int x, int y, int assetId) {
+    this.putShort(assetOffset + (y * width + x) * 2, assetId);
+  }
+
+  @Override
+  void initSquare(int x, int y, int squareType, int assetId, int paintCount) {
+    int at = typeOffset + y * width + x;
+    ByteBuffer page = this.writablePage(at);
+    if (page == null) {
+      this.base.put(at, (byte) squareType);
+    } else {
+      page.put(at & PAGE_MASK, (byte) squareType);
+    }
+    this.setColor(x, y, Grid.NO_COLOR);
+    this.setPaintCount(x, y, paintCount);
+    this.setAssetId(x, y, assetId);
+  }
+
+  // Values never straddle pages: the header and every plane start on an even offset, ints only
+  // sit in the first plane, which starts on a multiple of 4, and pages are a multiple of 4 long
+  private int getShort(int at) {
+    ByteBuffer page = this.pages.get(at >> PAGE_SHIFT);
+    return page == null ? this.base.getShort(at) : page.getShort(at & PAGE_MASK);
+  }
+
+  private void putShort(int at, int value) {
+    ByteBuffer page = this.writablePage(at);
+    if (page == null) {
+      this.base.putShort(at, (short) value);
+    } else {
+      page.putShort(at & PAGE_MASK, (short) value);
+    }
+  }
+
+  // Returns the page holding offset at for writing, copying it first if it is still read from
+  // the base or shared with a copy, or null if the base is written in place. Only copying a page
+  // locks, so that threads writing to the same page at once share a single copy.
+  private ByteBuffer writablePage(int at) {
+    if (this.baseOwned) {
+      return null;
+    }
+    int index = at >> PAGE_SHIFT;
+    ByteBuffer page = this.pages.get(index);
+    if (page == null || page.isReadOnly()) {
+      synchronized (this) {
+        page = this.pages.get(index);
+        if (page == null || page.isReadOnly()) {
+          page = this.copyPage(index, page);
+          this.pages.set(index, page);
+        }
+      }
+    }
+    return page;
+  }
+
+  private ByteBuffer copyPage(int index, ByteBuffer shared) {
+    int start = index << PAGE_SHIFT;
+    int length = Math.min(PAGE_SIZE, this.base.capacity() - start);
+    ByteBuffer copy = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    if (shared == null) {
+      copy.put(0, this.base, start, length);
+    } else {
+      copy.put(0, shared, 0, length);
+    }
+    return copy;
+  }
+
+  // Copied in constant time for a storage that has not been painted, which is how maps are
+  // copied for each world: the copy shares the base and whatever pages have been copied out of
+  // it, and both storages copy a page again before writing to it. A mapping is shared rather
+  // than mapped again, so the copy holds the squares as they were loaded even if the map has
+  // been compiled again since.
+  @Override
+  synchronized GridStorage copy() {
+    // Neither storage may write to the base or the pages copied so far from now on
+    if (this.baseOwned) {
+      this.base = this.base.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+      this.baseOwned = false;
+    }
+    AtomicReferenceArray<ByteBuffer> shared = new AtomicReferenceArray<>(this.pages.length());
+    for (int i = 0; i < this.pages.length(); i++) {
+      ByteBuffer page = this.pages.get(i);
+      if (page != null) {
+        if (!page.isReadOnly()) {
+          page = page.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+          this.pages.set(i, page);
+        }
+        shared.set(i, page);
+      }
+    }
+    return new BufferGridStorage(this.base, width, height, false, shared);
+  }
+}
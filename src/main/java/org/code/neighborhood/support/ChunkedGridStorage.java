@@ -0,0 +1,149 @@
+package org.code.neighborhood.support;
+
+import java.util.Arrays;
+
+// Keeps squares in 64x64 chunks that are only allocated once a square in them differs from an
+// open, unpainted square. Until then every chunk refers to one shared, immutable chunk, so a
+// huge mostly-empty world costs a few bytes per chunk instead of nine bytes per square.
+// Reads never branch on whether a chunk is shared; writes copy a shared chunk first.
+class ChunkedGridStorage extends GridStorage {
+  static final int CHUNK_SHIFT = 6;
+  static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  private static final int OPEN = GridSquare.SquareType.OPEN.ordinal();
+
+  // The contents of every chunk that has not been written to
+  private static final Chunk OPEN_CHUNK = Chunk.open();
+
+  private final int chunksWide;
+  private final Chunk[] chunks;
+
+  ChunkedGridStorage(int width, int height) {
+    this.chunksWide = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+    int chunksHigh = (height + CHUNK_MASK) >> CHUNK_SHIFT;
+    this.chunks = new Chunk[chunksWide * chunksHigh];
+    Arrays.fill(this.chunks, OPEN_CHUNK);
+  }
+
+  private ChunkedGridStorage(ChunkedGridStorage other) {
+    this.chunksWide = other.chunksWide;
+    this.chunks = other.chunks.clone();
+    // Both grids now refer to the same chunks, so whichever writes first takes a copy
+    for (Chunk chunk : this.chunks) {
+      chunk.shared = true;
+    }
+  }
+
+  private static class Chunk {
+    private final byte[] squareTypes;
+    private final int[] colors;
+    private final short[] paintCounts;
+    private final short[] assetIds;
+    // A shared chunk may be referenced by several grids and must be copied before a write
+    private boolean shared;
+
+    private Chunk(byte[] squareTypes, int[] colors, short[] paintCounts, short[] assetIds) {
+      this.squareTypes = squareTypes;
+      this.colors = colors;
+      this.paintCounts = paintCounts;
+      this.assetIds = assetIds;
+    }
+
+    private static Chunk open() {
+      byte[] squareTypes = new byte[CHUNK_SIZE * CHUNK_SIZE];
+      Arrays.fill(squareTypes, (byte) OPEN);
+      int size = squareTypes.length;
+      Chunk chunk = new Chunk(squareTypes, new int[size], new short[size], new short[size]);
+      chunk.shared = true;
+      return chunk;
+    }
+
+    private Chunk copy() {
+      return new Chunk(squareTypes.clone(), colors.clone(), paintCounts.clone(), assetIds.clone());
+    }
+  }
+
+  private Chunk chunk(int x, int y) {
+    return this.chunks[(y >> CHUNK_SHIFT) * chunksWide + (x >> CHUNK_SHIFT)];
+  }
+
+  // Returns the chunk holding (x, y), copying it first if it is shared
+  private Chunk writableChunk(int x, int y) {
+    int chunkIndex = (y >> CHUNK_SHIFT) * chunksWide + (x >> CHUNK_SHIFT);
+    Chunk chunk = this.chunks[chunkIndex];
+    if (chunk.shared) {
+      chunk = chunk.copy();
+      this.chunks[chunkIndex] = chunk;
+    }
+    return chunk;
+  }
+
+  private static int offset(int x, int y) {
+    return ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+  }
+
+  // Returns the number of chunks that have their own storage
+  int allocatedChunks() {
+    int allocated = 0;
+    for (Chunk chunk : this.chunks) {
+      if (chunk != OPEN_CHUNK) {
+        allocated++;
+      }
+    }
+    return allocated;
+  }
+
+  @Override
+  int squareType(int x, int y) {
+    return this.chunk(x, y).squareTypes[offset(x, y)];
+  }
+
+  @Override
+  int color(int x, int y) {
+    return this.chunk(x, y).colors[offset(x, y)];
+  }
+
+  @Override
+  void setColor(int x, int y, int argb) {
+    this.writableChunk(x, y).colors[offset(x, y)] = argb;
+  }
+
+  @Override
+  int paintCount(int x, int y) {
+    return this.chunk(x, y).paintCounts[offset(x, y)];
+  }
+
+  @Override
+  void setPaintCount(int x, int y, int paintCount) {
+    this.writableChunk(x, y).paintCounts[offset(x, y)] = (short) paintCount;
+  }
+
+  @Override
+  int assetId(int x, int y) {
+    return this.chunk(x, y).assetIds[offset(x, y)];
+  }
+
+  @Override
+  void setAssetId(int x, int y, int assetId) {
+    this.writableChunk(x, y).assetIds[offset(x, y)] = (short) assetId;
+  }
+
+  @Override
+  void initSquare(int x, int y, int squareType, int assetId, int paintCount) {
+    Chunk chunk = this.chunk(x, y);
+    if (chunk == OPEN_CHUNK && squareType == OPEN && assetId == 0 && paintCount == 0) {
+      return;
+    }
+    chunk = this.writableChunk(x, y);
+    int offset = offset(x, y);
+    chunk.squareTypes[offset] = (byte) squareType;
+    chunk.colors[offset] = Grid.NO_COLOR;
+    chunk.paintCounts[offset] = (short) paintCount;
+    chunk.assetIds[offset] = (short) assetId;
+  }
+
+  @Override
+  GridStorage copy() {
+    return new ChunkedGridStorage(this);
+  }
+}
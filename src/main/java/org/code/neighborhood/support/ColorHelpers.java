@@ -1,31 +1,126 @@
 package org.code.neighborhood.support;
 
 import java.awt.Color;
-import java.util.HashMap;
-import java.util.Map;
 
 public class ColorHelpers {
-    private static final Map<String, Color> colorMap = new HashMap<>();
+    // The named colors, placed by nameSlot so that each name has a slot of its own
+    private static final String[] names = new String[16];
+    private static final Color[] namedColors = new Color[16];
 
     static {
-        colorMap.put("black", Color.BLACK);
-        colorMap.put("blue", Color.BLUE);
-        colorMap.put("cyan", Color.CYAN);
-        colorMap.put("gray", Color.GRAY);
-        colorMap.put("green", Color.GREEN);
-        colorMap.put("magenta", Color.MAGENTA);
-        colorMap.put("orange", Color.ORANGE);
-        colorMap.put("pink", Color.PINK);
-        colorMap.put("red", Color.RED);
-        colorMap.put("white", Color.WHITE);
-        colorMap.put("yellow", Color.YELLOW);
+        name("black", Color.BLACK);
+        name("blue", Color.BLUE);
+        name("cyan", Color.CYAN);
+        name("gray", Color.GRAY);
+        name("green", Color.GREEN);
+        name("magenta", Color.MAGENTA);
+        name("orange", Color.ORANGE);
+        name("pink", Color.PINK);
+        name("red", Color.RED);
+        name("white", Color.WHITE);
+        name("yellow", Color.YELLOW);
     }
 
+    private static void name(String name, Color color) {
+        int slot = nameSlot(name);
+        if (names[slot] != null) {
+            throw new IllegalStateException("Color names " + name + " and " + names[slot]
+                + " share a slot");
+        }
+        names[slot] = name;
+        namedColors[slot] = color;
+    }
+
+    // A perfect hash of the named colors built from the length and the first and last letters,
+    // ignoring case, so a lookup reads three characters and compares against a single name
+    private static int nameSlot(String name) {
+        int first = name.charAt(0) | 0x20;
+        int last = name.charAt(name.length() - 1) | 0x20;
+        return (first * 4 + last * 8 + name.length()) & 15;
+    }
+
+    // Returns the color for a name such as "red" in any case, a hex color such as "#FF8800" or
+    // "#F80", or an RGB color such as "rgb(255, 136, 0)", or null if the string is none of
+    // these. Never allocates for named colors, and returns the palette's Color for the others.
     public static Color fromName(String name) {
-        return colorMap.getOrDefault(name.toLowerCase(), null);
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        int slot = nameSlot(name);
+        if (names[slot] != null && names[slot].equalsIgnoreCase(name)) {
+            return namedColors[slot];
+        }
+        int rgb = parseRgb(name);
+        return rgb < 0 ? null : Palette.colorOf(0xFF000000 | rgb);
+    }
+
+    // Parses a hex or rgb() color to its 24-bit RGB value, or returns -1
+    private static int parseRgb(String text) {
+        if (text.charAt(0) == '#') {
+            if (text.length() == 7) {
+                return parseHex(text, 1, 7);
+            }
+            if (text.length() == 4) {
+                int rgb = parseHex(text, 1, 4);
+                if (rgb < 0) {
+                    return -1;
+                }
+                // Each digit of #RGB stands for the same digit twice
+                int r = rgb >> 8;
+                int g = (rgb >> 4) & 0xF;
+                int b = rgb & 0xF;
+                return (r * 0x11) << 16 | (g * 0x11) << 8 | b * 0x11;
+            }
+            return -1;
+        }
+        if (text.length() < 10 || !text.regionMatches(true, 0, "rgb(", 0, 4)
+                || text.charAt(text.length() - 1) != ')') {
+            return -1;
+        }
+        int rgb = 0;
+        int at = 4;
+        for (int channel = 0; channel < 3; channel++) {
+            while (at < text.length() && text.charAt(at) == ' ') {
+                at++;
+            }
+            int value = 0;
+            int digits = 0;
+            while (at < text.length() && Character.isDigit(text.charAt(at)) && digits < 4) {
+                value = value * 10 + (text.charAt(at++) - '0');
+                digits++;
+            }
+            while (at < text.length() && text.charAt(at) == ' ') {
+                at++;
+            }
+            char expected = channel < 2 ? ',' : ')';
+            if (digits == 0 || value > 255 || at >= text.length() || text.charAt(at) != expected) {
+                return -1;
+            }
+            at++;
+            rgb = rgb << 8 | value;
+        }
+        return at == text.length() ? rgb : -1;
+    }
+
+    private static int parseHex(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(text.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    // Returns the palette's Color with the given ARGB value, which is the java.awt.Color constant
+    // for the named colors
+    public static Color fromArgb(int argb) {
+        return Palette.colorOf(argb);
     }
 
     public static boolean isRecognizedColor(String name) {
-        return colorMap.containsKey(name.toLowerCase());
+        return fromName(name) != null;
     }
-}
\ No newline at end of file
+}
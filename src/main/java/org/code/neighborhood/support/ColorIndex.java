@@ -0,0 +1,83 @@
+package org.code.neighborhood.support;
+
+import java.util.Arrays;
+
+// Numbers distinct ARGB colors in the order they are first seen, using open addressing so that
+// looking a color up does not box it. Not thread safe.
+final class ColorIndex {
+  private int[] keys = new int[16];
+  // One more than the number of the color in keys at the same position, or 0 for an empty slot
+  private int[] slots = new int[16];
+  private int[] colors = new int[8];
+  private int size;
+
+  // Returns the number of a color, numbering it if it has not been seen before
+  int slotFor(int argb) {
+    int mask = this.keys.length - 1;
+    int at = hash(argb) & mask;
+    while (this.slots[at] != 0) {
+      if (this.keys[at] == argb) {
+        return this.slots[at] - 1;
+      }
+      at = (at + 1) & mask;
+    }
+    if (this.size == this.colors.length) {
+      this.colors = Arrays.copyOf(this.colors, this.size * 2);
+    }
+    this.colors[this.size] = argb;
+    this.keys[at] = argb;
+    this.slots[at] = ++this.size;
+    if (this.size * 2 > this.keys.length) {
+      this.grow();
+    }
+    return this.size - 1;
+  }
+
+  // Returns the number of a color, or -1 if it has not been seen
+  int find(int argb) {
+    int mask = this.keys.length - 1;
+    int at = hash(argb) & mask;
+    while (this.slots[at] != 0) {
+      if (this.keys[at] == argb) {
+        return this.slots[at] - 1;
+      }
+      at = (at + 1) & mask;
+    }
+    return -1;
+  }
+
+  int size() {
+    return this.size;
+  }
+
+  int colorAt(int slot) {
+    return this.colors[slot];
+  }
+
+  private void grow() {
+    int[] keys = this.keys;
+    int[] slots = this.slots;
+    this.keys = new int[keys.length * 2];
+    this.slots = new int[slots.length * 2];
+    int mask = this.keys.length - 1;
+    for (int i = 0; i < keys.length; i++) {
+      if (slots[i] != 0) {
+        int at = hash(keys[i]) & mask;
+        while (this.slots[at] != 0) {
+          at = (at + 1) & mask;
+        }
+        this.keys[at] = keys[i];
+        this.slots[at] = slots[i];
+      }
+    }
+  }
+
+  private static int hash(int argb) {
+    int h = argb * 0x9E3779B1;
+    return h ^ (h >>> 16);
+  }
+
+  int[] colors() {
+    return Arrays.copyOf(this.colors, this.size);
+  }
+}
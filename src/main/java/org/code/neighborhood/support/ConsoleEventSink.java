@@ -0,0 +1,76 @@
+package org.code.neighborhood.support;
+
+import java.io.PrintStream;
+
+// Prints each event as the message painters used to print themselves. A batch is written to
+// the stream in one call.
+public class ConsoleEventSink implements EventSink {
+  // The stream to print to, or null for whatever System.out is when a batch is printed
+  private final PrintStream out;
+  private final StringBuilder text = new StringBuilder();
+
+  // Prints to System.out, following any System.setOut made after the sink was created
+  public ConsoleEventSink() {
+    this(null);
+  }
+
+  public ConsoleEventSink(PrintStream out) {
+    this.out = out;
+  }
+
+  @Override
+  public void accept(PainterEvent event) {
+    StringBuilder text = this.text;
+    String direction = event.getDirection().getDirectionString();
+    switch (event.getKind()) {
+      case CREATE -> text.append("Painter made with ").append(event.getPaint())
+          .append(" buckets of paint");
+      case TURN -> text.append("Action: TURN, direction = ").append(direction);
+      case MOVE -> text.append("Action: MOVE, direction = ").append(direction);
+      case PAINT -> appendColor(text.append("Painted with color: "), event.getColor());
+      case PAINT_LINE -> appendColor(text.append("Action: PAINT LINE to (").append(event.getX())
+          .append(", ").append(event.getY()).append(") with color: "), event.getColor());
+      case PAINT_RECT -> appendColor(text.append("Action: PAINT RECT to (").append(event.getX())
+          .append(", ").append(event.getY()).append(") with color: "), event.getColor());
+      case FILL -> appendColor(text.append("Action: FILL from (").append(event.getX())
+          .append(", ").append(event.getY()).append(") with color: "), event.getColor());
+      case SCRAPE -> text.append("Action: REMOVING PAINT = ").append(direction);
+      case TAKE_PAINT -> {
+        if (!event.getResult()) {
+          // The painter prints its own warning when there was no paint to take
+          return;
+        }
+        text.append("Action: TAKING PAINT = ").append(event.getPaint())
+            .append(" buckets in inventory");
+      }
+      case IS_ON_PAINT -> text.append("Action: IS ON PAINT = ").append(event.getResult());
+      case IS_ON_BUCKET -> text.append("Action: IS ON BUCKET = ").append(event.getResult());
+      case CAN_MOVE_FORWARD -> text.append("Action: CAN MOVE forward: ").append(event.getResult());
+      case CAN_MOVE_LEFT -> text.append("Action: CAN MOVE left: ").append(event.getResult());
+      case CAN_MOVE_RIGHT -> text.append("Action: CAN MOVE right: ").append(event.getResult());
+      case CAN_MOVE_BACKWARD -> text.append("Action: CAN MOVE backward: ").append(event.getResult());
+      case HIDE -> text.append("Action: HIDING PAINTER");
+      case SHOW -> text.append("Action: SHOWING PAINTER");
+      case SHOW_BUCKETS -> text.append("[Painter] showBuckets() called");
+      case HIDE_BUCKETS -> text.append("[Painter] hideBuckets() called");
+    }
+    text.append(System.lineSeparator());
+  }
+
+  // Matches java.awt.Color.toString()
+  private static void appendColor(StringBuilder text, int color) {
+    text.append("java.awt.Color[r=").append((color >> 16) & 0xFF)
+        .append(",g=").append((color >> 8) & 0xFF)
+        .append(",b=").append(color & 0xFF).append(']');
+  }
+
+  @Override
+  public void flush() {
+    if (this.text.length() > 0) {
+      PrintStream out = this.out != null ? this.out : System.out;
+      out.print(this.text);
+      out.flush();
+      this.text.setLength(0);
+    }
+  }
+}
@@ -1,53 +1,48 @@
 package org.code.neighborhood.support;
 
 public enum Direction {
-  NORTH("north"),
-  EAST("east"),
-  SOUTH("south"),
-  WEST("west");
+  NORTH("north", 0, -1),
+  EAST("east", 1, 0),
+  SOUTH("south", 0, 1),
+  WEST("west", -1, 0);
+
+  // Directions in clockwise order, so turning is a step through this table
+  private static final Direction[] CLOCKWISE = values();
+
   private String directionString;
+  private final int dx;
+  private final int dy;
 
-  Direction(String directionString) {
+  Direction(String directionString, int dx, int dy) {
     this.directionString = directionString;
+    this.dx = dx;
+    this.dy = dy;
   }
+
   public Direction left() {
-    switch (this) {
-        case NORTH: return WEST;
-        case EAST: return NORTH;
-        case SOUTH: return EAST;
-        case WEST: return SOUTH;
-        default: throw new IllegalStateException("Unexpected value: " + this);
-    }
-}
+    return CLOCKWISE[(this.ordinal() + 3) & 3];
+  }
 
-public Direction right() {
-    switch (this) {
-        case NORTH: return EAST;
-        case EAST: return SOUTH;
-        case SOUTH: return WEST;
-        case WEST: return NORTH;
-        default: throw new IllegalStateException("Unexpected value: " + this);
-    }
-}
+  public Direction right() {
+    return CLOCKWISE[(this.ordinal() + 1) & 3];
+  }
 
-public Direction opposite() {
-    switch (this) {
-        case NORTH: return SOUTH;
-        case EAST: return WEST;
-        case SOUTH: return NORTH;
-        case WEST: return EAST;
-        default: throw new IllegalStateException("Unexpected value: " + this);
-    }
-}
+  public Direction opposite() {
+    return CLOCKWISE[(this.ordinal() + 2) & 3];
+  }
 
   public Direction turnLeft() {
-    Direction newDir;
-    if (this == NORTH) {
-      newDir = WEST;
-    } else {
-      newDir = this.values()[this.ordinal() - 1];
-    }
-    return newDir;
+    return this.left();
+  }
+
+  // The change in x of one step in this direction
+  public int getDx() {
+    return this.dx;
+  }
+
+  // The change in y of one step in this direction
+  public int getDy() {
+    return this.dy;
   }
 
   public String getDirectionString() {
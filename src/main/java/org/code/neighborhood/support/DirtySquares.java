@@ -0,0 +1,62 @@
+package org.code.neighborhood.support;
+
+// Collects the squares of a grid that changed since a display last drew them. Painters and the
+// grid mark squares from the program thread; the display drains them on the Swing thread.
+// Marking does nothing until a display starts tracking, so headless runs pay only a flag check.
+public class DirtySquares {
+  // Past this many squares a display should just redraw everything
+  public static final int CAPACITY = 256;
+
+  private final int[] xs = new int[CAPACITY];
+  private final int[] ys = new int[CAPACITY];
+  private int count;
+  private boolean overflowed;
+  private volatile boolean tracking;
+
+  // Starts recording changes. Everything is dirty until the first drain.
+  public synchronized void startTracking() {
+    this.tracking = true;
+    this.overflowed = true;
+  }
+
+  public boolean isTracking() {
+    return this.tracking;
+  }
+
+  // Records that the square at (x, y) needs to be redrawn
+  public void mark(int x, int y) {
+    if (!this.tracking) {
+      return;
+    }
+    synchronized (this) {
+      if (this.overflowed) {
+        return;
+      }
+      if (this.count == CAPACITY) {
+        this.overflowed = true;
+        return;
+      }
+      this.xs[this.count] = x;
+      this.ys[this.count] = y;
+      this.count++;
+    }
+  }
+
+  // Records that the whole grid needs to be redrawn
+  public synchronized void markAll() {
+    this.overflowed = true;
+  }
+
+  // Copies the dirty squares into xs and ys, which must hold CAPACITY entries, and clears them.
+  // Returns the number of squares copied, or -1 if the whole grid needs to be redrawn.
+  public synchronized int drain(int[] xs, int[] ys) {
+    int drained = this.overflowed ? -1 : this.count;
+    if (drained > 0) {
+      System.arraycopy(this.xs, 0, xs, 0, drained);
+      System.arraycopy(this.ys, 0, ys, 0, drained);
+    }
+    this.count = 0;
+    this.overflowed = false;
+    return drained;
+  }
+}
@@ -0,0 +1,188 @@
+package org.code.neighborhood.support;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// A log of painter actions. Events are written as fixed-size int records into a preallocated
+// ring buffer, so logging an action allocates nothing, and a background thread delivers them to
+// the registered sinks in batches. A producer only waits when the ring is full.
+//
+// The console is a sink like any other, so painters never print or flush on their own thread.
+// Painter messages can therefore appear a little after output the program prints itself; call
+// flush to wait for them.
+//
+// The shared log writes to the console unless -Dneighborhood.log=off is set.
+public final class EventLog {
+  // Number of events the ring holds
+  public static final int CAPACITY = 8192;
+
+  private static EventLog shared;
+
+  private final int[] ring = new int[CAPACITY * PainterEvent.SIZE];
+  // Events written, taken by the drain thread and delivered to sinks since the log started
+  private long written;
+  private long taken;
+  private long delivered;
+  private final List<EventSink> sinks = new CopyOnWriteArrayList<>();
+  private volatile boolean enabled = true;
+  // True when enabled and there is at least one sink
+  private volatile boolean active;
+  // True while the drain thread waits for events
+  private boolean drainerWaiting;
+  private final int[] batch = new int[this.ring.length];
+  private final PainterEvent event = new PainterEvent();
+
+  public EventLog() {
+    Thread drainer = new Thread(this::drain, "neighborhood-event-log");
+    drainer.setDaemon(true);
+    drainer.start();
+    Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+  }
+
+  // Returns the log painters write to
+  public static synchronized EventLog get() {
+    if (shared == null) {
+      shared = new EventLog();
+      if (!"off".equalsIgnoreCase(System.getProperty("neighborhood.log"))) {
+        shared.addSink(new ConsoleEventSink());
+      }
+    }
+    return shared;
+  }
+
+  public void addSink(EventSink sink) {
+    this.sinks.add(sink);
+    this.updateActive();
+  }
+
+  public void removeSink(EventSink sink) {
+    this.sinks.remove(sink);
+    this.updateActive();
+  }
+
+  // Turns logging on or off. Events logged while off are dropped.
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    this.updateActive();
+  }
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  private void updateActive() {
+    this.active = this.enabled && !this.sinks.isEmpty();
+  }
+
+  // Records one action. Does nothing if logging is off or there are no sinks.
+  public void log(int painterId, PainterEvent.Kind kind, int x, int y, Direction direction,
+      int color, int paint, boolean result) {
+    if (!this.active) {
+      return;
+    }
+    boolean interrupted = false;
+    synchronized (this) {
+      while (this.written - this.taken == CAPACITY) {
+        this.notifyAll();
+        try {
+          this.wait();
+        } catch (InterruptedException e) {
+          // The event is still logged; the interrupt is passed on afterwards
+          interrupted = true;
+        }
+      }
+      int offset = (int) (this.written % CAPACITY) * PainterEvent.SIZE;
+      int[] ring = this.ring;
+      ring[offset] = painterId;
+      ring[offset + 1] = kind.ordinal();
+      ring[offset + 2] = x;
+      ring[offset + 3] = y;
+      ring[offset + 4] = direction.ordinal();
+      ring[offset + 5] = color;
+      ring[offset + 6] = paint;
+      ring[offset + 7] = result ? 1 : 0;
+      this.written++;
+      if (this.drainerWaiting) {
+        this.notifyAll();
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Waits until every event logged so far has been delivered to the sinks and flushed
+  public void flush() {
+    synchronized (this) {
+      long target = this.written;
+      this.notifyAll();
+      while (this.delivered < target) {
+        try {
+          this.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  // Runs on the drain thread: sleeps until there are events, then delivers them
+  private void drain() {
+    while (true) {
+      synchronized (this) {
+        while (this.written == this.taken) {
+          this.drainerWaiting = true;
+          try {
+            this.wait();
+          } catch (InterruptedException e) {
+            return;
+          } finally {
+            this.drainerWaiting = false;
+          }
+        }
+      }
+      this.deliverPending();
+    }
+  }
+
+  // Moves pending events out of the ring in one copy, then hands them to the sinks without
+  // holding the ring's lock
+  private void deliverPending() {
+    int[] batch = this.batch;
+    int count;
+    synchronized (this) {
+      count = (int) (this.written - this.taken);
+      if (count == 0) {
+        return;
+      }
+      int start = (int) (this.taken % CAPACITY);
+      int firstPart = Math.min(count, CAPACITY - start);
+      System.arraycopy(this.ring, start * PainterEvent.SIZE, batch, 0,
+          firstPart * PainterEvent.SIZE);
+      System.arraycopy(this.ring, 0, batch, firstPart * PainterEvent.SIZE,
+          (count - firstPart) * PainterEvent.SIZE);
+      this.taken += count;
+      // Wake any producer waiting for room
+      this.notifyAll();
+    }
+
+    PainterEvent event = this.event;
+    for (EventSink sink : this.sinks) {
+      try {
+        for (int i = 0; i < count; i++) {
+          event.load(batch, i * PainterEvent.SIZE);
+          sink.accept(event);
+        }
+        sink.flush();
+      } catch (RuntimeException e) {
+        System.err.println("Event sink failed: " + e);
+      }
+    }
+
+    synchronized (this) {
+      this.delivered += count;
+      this.notifyAll();
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package org.code.neighborhood.support;
+
+// Receives painter events from an EventLog. Both methods are called on the log's drain thread.
+public interface EventSink {
+  // Called once per event, in the order the events were logged
+  void accept(PainterEvent event);
+
+  // Called after each batch of events has been delivered
+  default void flush() {}
+}
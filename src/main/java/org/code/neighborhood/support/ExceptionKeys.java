@@ -7,5 +7,6 @@ public enum ExceptionKeys {
   INVALID_COLOR,
   INVALID_LOCATION,
   INVALID_MOVE,
-  INVALID_PAINT_LOCATION
+  INVALID_PAINT_LOCATION,
+  WORLD_STOPPED
 }
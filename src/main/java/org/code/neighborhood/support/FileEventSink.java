@@ -0,0 +1,58 @@
+package org.code.neighborhood.support;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Writes each event to a file as one comma-separated line:
+// painterId,kind,x,y,direction,color,paint,result
+public class FileEventSink implements EventSink, Closeable {
+  private final BufferedWriter writer;
+
+  public FileEventSink(Path path) throws IOException {
+    this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void accept(PainterEvent event) {
+    try {
+      BufferedWriter writer = this.writer;
+      writer.write(Integer.toString(event.getPainterId()));
+      writer.write(',');
+      writer.write(event.getKind().name());
+      writer.write(',');
+      writer.write(Integer.toString(event.getX()));
+      writer.write(',');
+      writer.write(Integer.toString(event.getY()));
+      writer.write(',');
+      writer.write(event.getDirection().name());
+      writer.write(',');
+      writer.write(Integer.toHexString(event.getColor()));
+      writer.write(',');
+      writer.write(Integer.toString(event.getPaint()));
+      writer.write(',');
+      writer.write(event.getResult() ? '1' : '0');
+      writer.newLine();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void flush() {
+    try {
+      this.writer.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.writer.close();
+  }
+}
@@ -1,23 +1,167 @@
 package org.code.neighborhood.support;
 
+import java.awt.Color;
 import java.util.ArrayList;
+import java.util.Arrays;
 
+// The squares of the neighborhood. Square state is held by a GridStorage: flat primitive arrays
+// for ordinary maps, lazily allocated chunks for very large ones, or a memory-mapped buffer for
+// compiled .nbmap files. GridSquare objects are lightweight views onto one position of the grid.
+//
+// Painters on different threads may share a grid. Every change to a square holds the lock for
+// the 64x64 region containing it, the same regions chunked storage copies on write, so painters
+// working in different parts of the grid rarely wait for each other. Reads take no lock.
 public class Grid {
-  private final GridSquare[][] grid;
+  // Stored color of a square that has not been painted
+  static final int NO_COLOR = 0;
+  // Grids with more squares than this are stored in chunks
+  static final int CHUNKED_STORAGE_THRESHOLD = 1024 * 1024;
+
   private final int width;
   private final int height;
+  private GridStorage storage;
+  private final DirtySquares dirtySquares = new DirtySquares();
+  // Built the first time they are asked for, then kept up to date by every change to a square
+  private volatile GridStats stats;
+  // Built the first time a path is asked for. Only rebuilding squares can change walls.
+  private volatile Navigator navigator;
+  // Whether movement checks read packed passability rather than the storage
+  private final boolean packsPassability;
+  // Built the first time a square's passability is asked about. Only rebuilding squares or
+  // restoring a snapshot replaces it, neither of which happens while painters use the grid, so
+  // the field is read without a volatile read on every move.
+  private Passability passability;
+
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final int LOCK_REGION_SHIFT = ChunkedGridStorage.CHUNK_SHIFT;
+  // The most region locks one grid keeps; on larger grids several regions share each lock
+  private static final int MAX_REGION_LOCKS = 4096;
+  // One lock per 64x64 region of this grid, guarding changes to its squares. Each grid has its
+  // own, so painters in different worlds never wait for each other.
+  private final Object[] regionLocks;
+  private final int lockRegionsWide;
 
+  // Creates a width x height grid for the factory to fill in with initSquare. Squares start
+  // out as walls in array storage and as open squares in chunked storage.
+  Grid(int width, int height) {
+    this(width, height, (long) width * height > CHUNKED_STORAGE_THRESHOLD
+        ? new ChunkedGridStorage(width, height)
+        : new ArrayGridStorage(width, height));
+  }
+
+  Grid(int width, int height, GridStorage storage) {
+    this.width = width;
+    this.height = height;
+    this.storage = storage;
+    this.packsPassability = Passability.packs(width, height);
+    int mask = (1 << LOCK_REGION_SHIFT) - 1;
+    this.lockRegionsWide = (width + mask) >> LOCK_REGION_SHIFT;
+    long regions = (long) this.lockRegionsWide * ((height + mask) >> LOCK_REGION_SHIFT);
+    this.regionLocks = new Object[(int) Math.max(1, Math.min(MAX_REGION_LOCKS, regions))];
+    for (int i = 0; i < this.regionLocks.length; i++) {
+      this.regionLocks[i] = new Object();
+    }
+  }
+
+  // Builds a grid from standalone squares. The squares are copied in and become views onto
+  // this grid.
   protected Grid(GridSquare[][] squares) {
-    this.grid = squares;
-    this.height = squares.length;
-    this.width = squares[0].length;
+    this(squares[0].length, squares.length);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        squares[y][x].moveTo(this, x, y);
+      }
+    }
+  }
+
+  // Returns a copy of this grid that can be painted without affecting the original. The copy
+  // shares storage with the original until either is written to, so it takes constant time.
+  protected Grid copy() {
+    return new Grid(width, height, storage.copy());
+  }
+
+  // Captures the current state of every square in constant time. Take snapshots while no
+  // painter is changing the grid.
+  public GridSnapshot snapshot() {
+    return new GridSnapshot(width, height, storage.copy());
+  }
+
+  // Puts every square back the way it was when the snapshot was taken, in constant time, and
+  // marks the whole grid for redrawing. The snapshot can be restored again afterwards. Restore
+  // snapshots while no painter is using the grid.
+  public void restore(GridSnapshot snapshot) {
+    if (snapshot.getWidth() != width || snapshot.getHeight() != height) {
+      throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
+    }
+    this.storage = snapshot.storage().copy();
+    this.dropDerivedState();
+    this.dirtySquares.markAll();
+  }
+
+  // Returns the grid's statistics, scanning it once the first time. Ask for them first while no
+  // painter is changing the grid; afterwards they can be read from any thread at any time.
+  public GridStats getStats() {
+    GridStats stats = this.stats;
+    if (stats == null) {
+      synchronized (this) {
+        stats = this.stats;
+        if (stats == null) {
+          stats = GridStats.of(this);
+          this.stats = stats;
+        }
+      }
+    }
+    return stats;
+  }
+
+  // Returns the grid's navigator, which finds paths between passable squares
+  public Navigator getNavigator() {
+    Navigator navigator = this.navigator;
+    if (navigator == null) {
+      synchronized (this) {
+        navigator = this.navigator;
+        if (navigator == null) {
+          navigator = new Navigator(this);
+          this.navigator = navigator;
+        }
+      }
+    }
+    return navigator;
+  }
+
+  // Threads racing to build the passability build the same bits, so no lock is taken
+  private Passability passability() {
+    Passability passability = this.passability;
+    if (passability == null) {
+      passability = new Passability(this);
+      this.passability = passability;
+    }
+    return passability;
+  }
+
+  // Forgets statistics, paths and passability after squares are rebuilt. Loading a grid calls
+  // this for every square, so it only writes when there is something to forget.
+  private void dropDerivedState() {
+    if (this.stats != null) {
+      this.stats = null;
+    }
+    if (this.navigator != null) {
+      this.navigator = null;
+    }
+    if (this.passability != null) {
+      this.passability = null;
+    }
+  }
+
+  GridStorage storage() {
+    return this.storage;
   }
 
   public void printGrid() {
     for (int y = 0; y < height; y++) {
       ArrayList<String> squares = new ArrayList<String>();
       for (int x = 0; x < width; x++) {
-        squares.add(this.grid[x][y].getPrintableDescription());
+        squares.add(this.printableDescription(x, y));
       }
       System.out.println(String.join(",", squares));
     }
@@ -27,20 +171,50 @@ public class Grid {
   // A coordinate cannot be moved into if it is out of the range of the grid
   // or if the tile is not passable (wall, obstacle, or unknown tile)
   public boolean validLocation(int x, int y) {
-    return x >= 0 && y >= 0 && x < width && y < height && this.grid[y][x].isPassable();
+    if (x < 0 || y < 0 || x >= width || y >= height) {
+      return false;
+    }
+    return this.packsPassability ? this.passability().isPassable(x, y) : this.isPassable(x, y);
   }
 
-  // Returns the GridSquare at the given position
+  // Determines whether a painter on (x, y) could take one step in the given direction
+  public boolean canMove(int x, int y, Direction direction) {
+    if (x < 0 || y < 0 || x >= width || y >= height) {
+      return false;
+    }
+    if (this.packsPassability) {
+      return this.passability().canMove(x, y, direction);
+    }
+    return this.validLocation(x + direction.getDx(), y + direction.getDy());
+  }
+
+  // Returns a view of the GridSquare at the given position
   public GridSquare getSquare(int x, int y) {
     if (x >= 0 && y >= 0 && x < width && y < height) {
-      return this.grid[y][x]; // ✅ Always return square, wall or not
+      return new GridSquare(this, x, y); // ✅ Always return square, wall or not
   } else {
       throw new NeighborhoodRuntimeException(ExceptionKeys.GET_SQUARE_FAILED);
   }
   }
 
+  // Returns the palette index of the square's color, 0 if it is unpainted, or -1 if its color
+  // did not fit in the palette. Does not allocate, unlike getSquare(x, y).getColor().
+  public int getPaletteIndex(int x, int y) {
+    return Palette.indexOf(this.storage.color(x, y));
+  }
+
+  // Records that the square at (x, y) needs to be redrawn, for example because a painter
+  // entered or left it
+  public void markDirty(int x, int y) {
+    this.dirtySquares.mark(x, y);
+  }
+
+  public DirtySquares getDirtySquares() {
+    return this.dirtySquares;
+  }
+
   public int getSize() {
-    return this.grid.length;
+    return this.height;
   }
   public int getWidth(){
     return this.width;
@@ -49,4 +223,291 @@ public class Grid {
   public int getHeight(){
     return this.height;
   }
+
+  // Sets the tile type, asset and paint count of a square while the grid is being built.
+  // Values that do not fit the packed storage make the grid invalid.
+  void initSquare(int x, int y, int tileType, int assetId, int paintCount) {
+    if (assetId < Short.MIN_VALUE || assetId > Short.MAX_VALUE
+        || paintCount < Short.MIN_VALUE || paintCount > Short.MAX_VALUE) {
+      throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
+    }
+    int squareType = GridSquare.SquareType.fromTileType(tileType).ordinal();
+    this.storage.initSquare(x, y, squareType, assetId, paintCount);
+    this.dropDerivedState();
+  }
+
+  // Copies every field of a square from another grid
+  void copySquare(int x, int y, Grid source, int sourceX, int sourceY) {
+    GridStorage from = source.storage;
+    this.storage.initSquare(x, y, from.squareType(sourceX, sourceY),
+        from.assetId(sourceX, sourceY), from.paintCount(sourceX, sourceY));
+    this.storage.setColor(x, y, from.color(sourceX, sourceY));
+    this.dropDerivedState();
+  }
+
+  // Overwrites the paint, color and asset of a square with previously recorded values, without
+  // the checks a painter's action goes through
+  void restoreSquare(int x, int y, int argb, int paintCount, int assetId) {
+    synchronized (lockFor(x, y)) {
+      GridStats stats = this.stats;
+      if (stats != null) {
+        stats.colorChanged(x, y, this.storage.color(x, y), argb);
+        stats.paintChanged(x, y, this.storage.paintCount(x, y), paintCount);
+      }
+      this.storage.setColor(x, y, argb);
+      this.storage.setPaintCount(x, y, paintCount);
+      this.storage.setAssetId(x, y, assetId);
+    }
+    this.dirtySquares.mark(x, y);
+  }
+
+  // Returns whether a painter could paint the square: it is passable and holds no bucket
+  public boolean canHoldPaint(int x, int y) {
+    return this.validLocation(x, y) && this.storage.paintCount(x, y) == 0;
+  }
+
+  // Returns the squares a flood fill from (x, y) paints, as (y, fromX, toX) triples of row
+  // spans: every square connected to (x, y) that can hold paint and has the same color as it.
+  // Found a span at a time with a scanline fill, so each square is visited a constant number
+  // of times.
+  public int[] fillSpans(int x, int y) {
+    if (!this.canHoldPaint(x, y)) {
+      return new int[0];
+    }
+    int color = this.storage.color(x, y);
+    long[] filled = new long[(int) (((long) width * height + 63) >>> 6)];
+    int[] seeds = new int[64];
+    int seedCount = 0;
+    int[] spans = new int[48];
+    int spanLength = 0;
+    seeds[seedCount++] = y * width + x;
+    while (seedCount > 0) {
+      int seed = seeds[--seedCount];
+      int seedX = seed % width;
+      int seedY = seed / width;
+      if (!this.fills(seedX, seedY, color, filled)) {
+        continue;
+      }
+      int from = seedX;
+      while (this.fills(from - 1, seedY, color, filled)) {
+        from--;
+      }
+      int to = seedX;
+      while (this.fills(to + 1, seedY, color, filled)) {
+        to++;
+      }
+      for (int square = seedY * width + from, last = seedY * width + to; square <= last; square++) {
+        filled[square >>> 6] |= 1L << square;
+      }
+      if (spanLength + 3 > spans.length) {
+        spans = Arrays.copyOf(spans, spans.length * 2);
+      }
+      spans[spanLength++] = seedY;
+      spans[spanLength++] = from;
+      spans[spanLength++] = to;
+      // Seed the start of every run of fillable squares above and below the span
+      for (int rowY = seedY - 1; rowY <= seedY + 1; rowY += 2) {
+        for (int rowX = from; rowX <= to; rowX++) {
+          if (this.fills(rowX, rowY, color, filled)
+              && (rowX == from || !this.fills(rowX - 1, rowY, color, filled))) {
+            if (seedCount == seeds.length) {
+              seeds = Arrays.copyOf(seeds, seedCount * 2);
+            }
+            seeds[seedCount++] = rowY * width + rowX;
+          }
+        }
+      }
+    }
+    return Arrays.copyOf(spans, spanLength);
+  }
+
+  private boolean fills(int x, int y, int color, long[] filled) {
+    if (!this.canHoldPaint(x, y) || this.storage.color(x, y) != color) {
+      return false;
+    }
+    int square = y * width + x;
+    return (filled[square >>> 6] & (1L << square)) == 0;
+  }
+
+  // Paints every square of the given (y, fromX, toX) row spans that can hold paint
+  public void paintSpans(int[] spans, int argb) {
+    for (int i = 0; i < spans.length; i += 3) {
+      int y = spans[i];
+      for (int x = spans[i + 1]; x <= spans[i + 2]; x++) {
+        this.setColor(x, y, argb);
+      }
+    }
+  }
+
+  // Returns the number of squares in the given (y, fromX, toX) row spans
+  public static int spanSquares(int[] spans) {
+    int squares = 0;
+    for (int i = 0; i < spans.length; i += 3) {
+      squares += spans[i + 2] - spans[i + 1] + 1;
+    }
+    return squares;
+  }
+
+  // Returns the directions a painter on (x, y), which must be on the grid, could step in, with
+  // bit Direction.ordinal() set for each
+  int moves(int x, int y) {
+    if (this.packsPassability) {
+      return this.passability().moves(x, y);
+    }
+    int moves = 0;
+    for (Direction direction : DIRECTIONS) {
+      if (this.validLocation(x + direction.getDx(), y + direction.getDy())) {
+        moves |= 1 << direction.ordinal();
+      }
+    }
+    return moves;
+  }
+
+  // Returns the lock guarding changes to the region containing (x, y)
+  private Object lockFor(int x, int y) {
+    return this.regionLocks[this.regionLockIndex(x, y)];
+  }
+
+  // Returns which of this grid's region locks guards the region containing (x, y)
+  int regionLockIndex(int x, int y) {
+    int region = (y >> LOCK_REGION_SHIFT) * this.lockRegionsWide + (x >> LOCK_REGION_SHIFT);
+    return region % this.regionLocks.length;
+  }
+
+  int regionLockCount() {
+    return this.regionLocks.length;
+  }
+
+  Object regionLock(int index) {
+    return this.regionLocks[index];
+  }
+
+  // The methods below hold the behavior of a single square. GridSquare views delegate to them,
+  // and painters call the public ones directly rather than allocate a view for each action.
+
+  boolean isPassable(int x, int y) {
+    return GridSquare.SquareType.isPassable(this.storage.squareType(x, y));
+  }
+
+  int paintCount(int x, int y) {
+    return this.storage.paintCount(x, y);
+  }
+
+  public boolean containsPaint(int x, int y) {
+    return this.storage.paintCount(x, y) > 0;
+  }
+
+  public boolean hasColor(int x, int y) {
+    return this.storage.color(x, y) != NO_COLOR;
+  }
+
+  public Color color(int x, int y) {
+    int argb = this.storage.color(x, y);
+    return argb == NO_COLOR ? null : ColorHelpers.fromArgb(argb);
+  }
+
+  // Paints the square. Fully transparent black is indistinguishable from no paint and is stored
+  // as an unpainted square.
+  public void setColor(int x, int y, Color color) {
+    int argb = color == null ? NO_COLOR : color.getRGB();
+    synchronized (lockFor(x, y)) {
+      if (this.containsPaint(x, y)) {
+        throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_PAINT_LOCATION);
+      }
+      this.setColor(x, y, argb);
+    }
+  }
+
+  // Paints the square with an ARGB value if it can hold paint; squares that are impassable or
+  // hold a paint bucket are left alone
+  void setColor(int x, int y, int argb) {
+    synchronized (lockFor(x, y)) {
+      if (!this.isPassable(x, y) || this.storage.paintCount(x, y) != 0) {
+        return;
+      }
+      GridStats stats = this.stats;
+      if (stats != null) {
+        stats.colorChanged(x, y, this.storage.color(x, y), argb);
+      }
+      this.storage.setColor(x, y, argb);
+    }
+    this.dirtySquares.mark(x, y);
+  }
+
+  int collectPaint(int x, int y) {
+    int paintCount;
+    synchronized (lockFor(x, y)) {
+      paintCount = this.storage.paintCount(x, y);
+      if (paintCount <= 0) {
+        System.out.println("There's no paint to collect here");
+        return paintCount;
+      }
+      paintCount--;
+      this.storage.setPaintCount(x, y, paintCount);
+      GridStats stats = this.stats;
+      if (stats != null) {
+        stats.paintChanged(x, y, paintCount + 1, paintCount);
+      }
+    }
+    this.dirtySquares.mark(x, y);
+    return paintCount;
+  }
+
+  // Takes one unit of paint from the square's bucket, clearing the bucket's asset once it is
+  // empty. Returns false if there was no paint to take. Two painters can never take the same
+  // unit.
+  public boolean takePaint(int x, int y) {
+    synchronized (lockFor(x, y)) {
+      int paintCount = this.storage.paintCount(x, y);
+      if (paintCount <= 0) {
+        return false;
+      }
+      this.storage.setPaintCount(x, y, paintCount - 1);
+      GridStats stats = this.stats;
+      if (stats != null) {
+        stats.paintChanged(x, y, paintCount, paintCount - 1);
+      }
+      if (paintCount == 1) {
+        this.storage.setAssetId(x, y, 0);
+      }
+    }
+    this.dirtySquares.mark(x, y);
+    return true;
+  }
+
+  public void removePaint(int x, int y) {
+    synchronized (lockFor(x, y)) {
+      if (!this.hasColor(x, y)) {
+        System.out.println("There's no paint to remove here");
+        return;
+      }
+      GridStats stats = this.stats;
+      if (stats != null) {
+        stats.colorChanged(x, y, this.storage.color(x, y), NO_COLOR);
+      }
+      this.storage.setColor(x, y, NO_COLOR);
+    }
+    this.dirtySquares.mark(x, y);
+  }
+
+  public int assetId(int x, int y) {
+    return this.storage.assetId(x, y);
+  }
+
+  void setAssetId(int x, int y, int assetId) {
+    synchronized (lockFor(x, y)) {
+      this.storage.setAssetId(x, y, assetId);
+    }
+    this.dirtySquares.mark(x, y);
+  }
+
+  String printableDescription(int x, int y) {
+    if (!this.isPassable(x, y)) {
+      return "x";
+    } else if (this.hasColor(x, y)) {
+      return String.valueOf(this.color(x, y));
+    } else {
+      return String.valueOf(this.storage.paintCount(x, y));
+    }
+  }
 }
@@ -0,0 +1,125 @@
+package org.code.neighborhood.support;
+
+// The differences between a grid and the painting expected of it, made by GridPattern.diff. Each
+// kind of difference is a bitset with one bit per square, indexed by y * width + x. A square is
+// mismatched if it is missing paint, has extra paint, has the wrong color or holds a bucket
+// that should have been emptied.
+public final class GridDiff {
+  private final int width;
+  private final int height;
+  private final long[] missing;
+  private final long[] extra;
+  private final long[] wrongColor;
+  private final long[] remainingBuckets;
+
+  GridDiff(int width, int height, long[] missing, long[] extra, long[] wrongColor,
+      long[] remainingBuckets) {
+    this.width = width;
+    this.height = height;
+    this.missing = missing;
+    this.extra = extra;
+    this.wrongColor = wrongColor;
+    this.remainingBuckets = remainingBuckets;
+  }
+
+  public int getWidth() {
+    return this.width;
+  }
+
+  public int getHeight() {
+    return this.height;
+  }
+
+  // Returns whether the grid matches the expected painting exactly
+  public boolean isMatch() {
+    for (int i = 0; i < this.missing.length; i++) {
+      if ((this.missing[i] | this.extra[i] | this.wrongColor[i] | this.remainingBuckets[i]) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Squares that should have been painted and were not
+  public int getMissingCount() {
+    return GridPattern.count(this.missing);
+  }
+
+  // Squares that were painted and should not have been
+  public int getExtraCount() {
+    return GridPattern.count(this.extra);
+  }
+
+  // Squares painted a different color than expected
+  public int getWrongColorCount() {
+    return GridPattern.count(this.wrongColor);
+  }
+
+  // Buckets that still hold paint although they should have been emptied
+  public int getRemainingBucketCount() {
+    return GridPattern.count(this.remainingBuckets);
+  }
+
+  public int getMismatchCount() {
+    int count = 0;
+    for (int i = 0; i < this.missing.length; i++) {
+      count += Long.bitCount(
+          this.missing[i] | this.extra[i] | this.wrongColor[i] | this.remainingBuckets[i]);
+    }
+    return count;
+  }
+
+  public boolean isMissing(int x, int y) {
+    return this.test(this.missing, x, y);
+  }
+
+  public boolean isExtra(int x, int y) {
+    return this.test(this.extra, x, y);
+  }
+
+  public boolean isWrongColor(int x, int y) {
+    return this.test(this.wrongColor, x, y);
+  }
+
+  public boolean isRemainingBucket(int x, int y) {
+    return this.test(this.remainingBuckets, x, y);
+  }
+
+  public boolean isMismatched(int x, int y) {
+    return this.isMissing(x, y) || this.isExtra(x, y) || this.isWrongColor(x, y)
+        || this.isRemainingBucket(x, y);
+  }
+
+  // Returns every mismatched square as y * width + x, in row order
+  public int[] getMismatchedSquares() {
+    int[] squares = new int[this.getMismatchCount()];
+    int count = 0;
+    for (int i = 0; i < this.missing.length; i++) {
+      long word = this.missing[i] | this.extra[i] | this.wrongColor[i] | this.remainingBuckets[i];
+      while (word != 0) {
+        squares[count++] = (i << 6) + Long.numberOfTrailingZeros(word);
+        word &= word - 1;
+      }
+    }
+    return squares;
+  }
+
+  private boolean test(long[] set, int x, int y) {
+    if (x < 0 || y < 0 || x >= this.width || y >= this.height) {
+      throw new NeighborhoodRuntimeException(ExceptionKeys.GET_SQUARE_FAILED);
+    }
+    int square = y * this.width + x;
+    return (set[square >>> 6] & (1L << square)) != 0;
+  }
+
+  @Override
+  public String toString() {
+    if (this.isMatch()) {
+      return "match";
+    }
+    return this.getMismatchCount() + " mismatched squares: " + this.getMissingCount()
+        + " missing paint, " + this.getExtraCount() + " extra paint, "
+        + this.getWrongColorCount() + " wrong color, " + this.getRemainingBucketCount()
+        + " remaining buckets";
+  }
+}
@@ -1,12 +1,18 @@
 package org.code.neighborhood.support;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 public class GridFactory {
   private static final String GRID_FILE_NAME = "grid.txt";
@@ -18,13 +24,8 @@ public class GridFactory {
 
   protected Grid createGridFromJSON(String filename) throws IOException {
     File file = new File(GRID_FILE_NAME);
-    FileInputStream fis;
     try {
-      fis = new FileInputStream(file);
-      byte[] data = new byte[(int) file.length()];
-      fis.read(data);
-      fis.close();
-      return createGridFromString(new String(data, "UTF-8"));
+      return createGridFromFile(file.toPath());
     } catch (IOException e) {
       throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
     }
@@ -34,57 +35,140 @@ public class GridFactory {
   // with each JSONObject containing an integer tileType and optionally an integer value
   // corresponding with the paintCount for that tile.
   protected Grid createGridFromString(String description) {
+    return createGridFromReader(new StringReader(description));
+  }
+
+  // Creates a grid by streaming the map file straight from a file channel. Compiled .nbmap
+  // files are memory-mapped instead of parsed. Only read errors are reported as IOExceptions;
+  // a malformed map is INVALID_GRID like createGridFromString.
+  protected Grid createGridFromFile(Path path) throws IOException {
+    if (BinaryMap.isBinaryMap(path)) {
+      return BinaryMap.map(path);
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        Reader reader = Channels.newReader(channel, StandardCharsets.UTF_8)) {
+      return createGridFromReader(reader);
+    }
+  }
+
+  // Creates a grid in a single streaming pass over the JSON description, filling in each square
+  // as it is read instead of building a tree of the whole document first. The width of the
+  // first row fixes the grid size; every later row is written directly into the grid.
+  protected Grid createGridFromReader(Reader description) {
     try {
-      JsonArray gridSquares = JsonParser.parseString(description).getAsJsonArray();
-      int height = gridSquares.size();
-      if (height == 0) {
+      JsonReader reader = new JsonReader(description);
+      // JsonParser.parseString, which this replaces, always parsed leniently
+      reader.setLenient(true);
+      reader.beginArray();
+      if (!reader.hasNext()) {
         throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
       }
-  
-      int width = gridSquares.get(0).getAsJsonArray().size();
-      if (width != height) {
+
+      int[] firstRow = readFirstRow(reader);
+      int width = firstRow.length / 3;
+      int height = width;
+      if (width == 0) {
         throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
       }
-  
-      GridSquare[][] grid = new GridSquare[height][width];
-      //System.out.println("Grid size: " + width + "x" + height);
-  
-      for (int currentY = 0; currentY < height; currentY++) {
-        JsonArray line = gridSquares.get(currentY).getAsJsonArray();
-        if (line.size() != width) {
+
+      Grid grid = new Grid(width, height);
+      for (int currentX = 0; currentX < width; currentX++) {
+        int offset = currentX * 3;
+        grid.initSquare(currentX, 0, firstRow[offset], firstRow[offset + 1], firstRow[offset + 2]);
+      }
+
+      int currentY = 1;
+      int[] square = new int[3];
+      while (reader.hasNext()) {
+        if (currentY == height) {
           throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
         }
-  
-        for (int currentX = 0; currentX < line.size(); currentX++) {
-          JsonObject descriptor = line.get(currentX).getAsJsonObject();
-          int tileType = descriptor.get(GRID_SQUARE_TYPE_FIELD).getAsInt();
-          int assetId = descriptor.has(GRID_SQUARE_ASSET_ID_FIELD)
-              ? descriptor.get(GRID_SQUARE_ASSET_ID_FIELD).getAsInt()
-              : 0;
-  
-          if (descriptor.has(GRID_SQUARE_VALUE_FIELD)) {
-            int value = descriptor.get(GRID_SQUARE_VALUE_FIELD).getAsInt();
-            grid[currentY][currentX] = new GridSquare(tileType, assetId, value);
-          } else {
-            grid[currentY][currentX] = new GridSquare(tileType, assetId);
+        reader.beginArray();
+        int currentX = 0;
+        while (reader.hasNext()) {
+          if (currentX == width) {
+            throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
           }
+          readSquare(reader, square);
+          grid.initSquare(currentX, currentY, square[0], square[1], square[2]);
+          currentX++;
+        }
+        if (currentX != width) {
+          throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
         }
+        reader.endArray();
+        currentY++;
+      }
+      reader.endArray();
+
+      if (currentY != height || reader.peek() != JsonToken.END_DOCUMENT) {
+        throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
       }
-  
-      return new Grid(grid);
+      return grid;
     } catch (Exception e) {
       throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
     }
   }
+
+  // Reads the first row before the grid size is known, returning tileType, assetId and value
+  // for each square packed three to a square
+  private int[] readFirstRow(JsonReader reader) throws IOException {
+    int[] row = new int[3 * 16];
+    int length = 0;
+    int[] square = new int[3];
+    reader.beginArray();
+    while (reader.hasNext()) {
+      readSquare(reader, square);
+      if (length == row.length) {
+        row = Arrays.copyOf(row, row.length * 2);
+      }
+      row[length++] = square[0];
+      row[length++] = square[1];
+      row[length++] = square[2];
+    }
+    reader.endArray();
+    return Arrays.copyOf(row, length);
+  }
+
+  // Reads one square descriptor into square as {tileType, assetId, value}. assetId and value
+  // default to 0; a missing tileType is an invalid grid.
+  private void readSquare(JsonReader reader, int[] square) throws IOException {
+    boolean hasTileType = false;
+    square[1] = 0;
+    square[2] = 0;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case GRID_SQUARE_TYPE_FIELD -> {
+          square[0] = readInt(reader);
+          hasTileType = true;
+        }
+        case GRID_SQUARE_ASSET_ID_FIELD -> square[1] = readInt(reader);
+        case GRID_SQUARE_VALUE_FIELD -> square[2] = readInt(reader);
+        default -> reader.skipValue();
+      }
+    }
+    reader.endObject();
+    if (!hasTileType) {
+      throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
+    }
+  }
+
+  // Reads a number as JsonElement.getAsInt did, dropping any fraction, so maps with values such
+  // as 1.5 load as they always have
+  private static int readInt(JsonReader reader) throws IOException {
+    return (int) reader.nextDouble();
+  }
+
   // Creates an empty size x size grid with every square being open
   // and having assetId 0.
   protected Grid createEmptyGrid(int size) {
-    GridSquare[][] grid = new GridSquare[size][size];
-    for (int i = 0; i < size; i++) {
-      for (int j = 0; j < size; j++) {
-        grid[i][j] = new GridSquare(1, 0);
+    Grid grid = new Grid(size, size);
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        grid.initSquare(x, y, 1, 0, 0);
       }
     }
-    return new Grid(grid);
+    return grid;
   }
 }
@@ -0,0 +1,225 @@
+package org.code.neighborhood.support;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// The painting on a grid compiled into the color of every square and two bitsets, one bit per
+// square indexed by y * width + x: one of every painted square and one of every bucket still
+// holding paint. Painted squares and buckets of two patterns are compared a word at a time, 64
+// squares per operation, and colors as plain ints, instead of square by square through
+// getSquare and Color.equals. A grid is compared against a pattern a row at a time, straight
+// from the grid's storage, without compiling it. A pattern takes the same memory however many
+// colors the grid is painted with.
+//
+// A pattern never changes once compiled, so one target can be shared by any number of threads
+// grading grids against it.
+public final class GridPattern {
+  private final int width;
+  private final int height;
+  private final long[] painted;
+  private final long[] buckets;
+  // The color of every square
+  private final int[] squares;
+
+  private GridPattern(int width, int height, int[] squares, long[] painted, long[] buckets) {
+    this.width = width;
+    this.height = height;
+    this.squares = squares;
+    this.painted = painted;
+    this.buckets = buckets;
+  }
+
+  // Compiles the current painting on a grid. Compile while no painter is changing the grid.
+  public static GridPattern of(Grid grid) {
+    int width = grid.getWidth();
+    int height = grid.getHeight();
+    GridStorage storage = grid.storage();
+    long[] painted = new long[words(width, height)];
+    long[] buckets = new long[painted.length];
+    int[] squares = new int[width * height];
+    int[] row = new int[width];
+    for (int y = 0, square = 0; y < height; y++) {
+      storage.readColors(y, row);
+      System.arraycopy(row, 0, squares, y * width, width);
+      for (int x = 0; x < width; x++, square++) {
+        if (row[x] != Grid.NO_COLOR) {
+          painted[square >>> 6] |= 1L << square;
+        }
+      }
+      storage.readPaintCounts(y, row);
+      for (int x = 0, at = y * width; x < width; x++, at++) {
+        if (row[x] > 0) {
+          buckets[at >>> 6] |= 1L << at;
+        }
+      }
+    }
+    return new GridPattern(width, height, squares, painted, buckets);
+  }
+
+  // Compiles the painting stored in a map file, such as the expected result of an exercise
+  public static GridPattern fromFile(Path path) throws IOException {
+    return of(new GridFactory().createGridFromFile(path));
+  }
+
+  private static int words(int width, int height) {
+    return (int) (((long) width * height + 63) >>> 6);
+  }
+
+  public int getWidth() {
+    return this.width;
+  }
+
+  public int getHeight() {
+    return this.height;
+  }
+
+  // Returns the number of squares with paint on them
+  public int getPaintedCount() {
+    return count(this.painted);
+  }
+
+  // Returns the number of buckets that still hold paint
+  public int getBucketCount() {
+    return count(this.buckets);
+  }
+
+  // Compares a grid against this pattern, taken as the expected painting. See
+  // diff(GridPattern).
+  public GridDiff diff(Grid actual) {
+    this.checkSize(actual);
+    int words = this.painted.length;
+    long[] missing = new long[words];
+    long[] extra = new long[words];
+    long[] wrongColor = new long[words];
+    long[] remainingBuckets = new long[words];
+    GridStorage storage = actual.storage();
+    int[] colors = new int[width];
+    int[] paintCounts = new int[width];
+    for (int y = 0, at = 0; y < height; y++) {
+      storage.readColors(y, colors);
+      storage.readPaintCounts(y, paintCounts);
+      for (int x = 0; x < width; x++, at++) {
+        long bit = 1L << at;
+        int expected = this.squares[at];
+        int painted = colors[x];
+        if (expected != painted) {
+          if (expected == Grid.NO_COLOR) {
+            extra[at >>> 6] |= bit;
+          } else if (painted == Grid.NO_COLOR) {
+            missing[at >>> 6] |= bit;
+          } else {
+            wrongColor[at >>> 6] |= bit;
+          }
+        }
+        if (paintCounts[x] > 0 && (this.buckets[at >>> 6] & bit) == 0) {
+          remainingBuckets[at >>> 6] |= bit;
+        }
+      }
+    }
+    return new GridDiff(this.width, this.height, missing, extra, wrongColor, remainingBuckets);
+  }
+
+  // Compares another pattern against this one, taken as the expected painting. Squares are
+  // missing paint if only this pattern paints them, have extra paint if only the actual pattern
+  // does, and have the wrong color if both paint them differently. Buckets that hold paint in
+  // the actual pattern but not in this one are remaining.
+  public GridDiff diff(GridPattern actual) {
+    this.checkSize(actual);
+    int words = this.painted.length;
+    long[] missing = new long[words];
+    long[] extra = new long[words];
+    long[] wrongColor = new long[words];
+    long[] remainingBuckets = new long[words];
+    long[] sameColor = this.sameColor(actual);
+    for (int i = 0; i < words; i++) {
+      long expected = this.painted[i];
+      long painted = actual.painted[i];
+      missing[i] = expected & ~painted;
+      extra[i] = painted & ~expected;
+      wrongColor[i] = expected & painted & ~sameColor[i];
+      remainingBuckets[i] = actual.buckets[i] & ~this.buckets[i];
+    }
+    return new GridDiff(this.width, this.height, missing, extra, wrongColor, remainingBuckets);
+  }
+
+  // Returns whether a grid has exactly this painting and no buckets with paint this pattern has
+  // emptied. Stops at the first row that differs.
+  public boolean matches(Grid actual) {
+    this.checkSize(actual);
+    GridStorage storage = actual.storage();
+    int[] row = new int[width];
+    for (int y = 0, start = 0; y < height; y++, start += width) {
+      storage.readColors(y, row);
+      if (!Arrays.equals(row, 0, width, this.squares, start, start + width)) {
+        return false;
+      }
+      storage.readPaintCounts(y, row);
+      for (int x = 0, at = start; x < width; x++, at++) {
+        if (row[x] > 0 && (this.buckets[at >>> 6] & (1L << at)) == 0) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  public boolean matches(GridPattern actual) {
+    this.checkSize(actual);
+    if (!Arrays.equals(this.squares, actual.squares)) {
+      return false;
+    }
+    for (int i = 0; i < this.buckets.length; i++) {
+      if ((actual.buckets[i] & ~this.buckets[i]) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Compares every grid against this pattern on all cores. The diffs are in the order of the
+  // grids.
+  public List<GridDiff> diffAll(List<Grid> grids) {
+    GridDiff[] diffs = new GridDiff[grids.size()];
+    IntStream.range(0, diffs.length).parallel()
+        .forEach(i -> diffs[i] = this.diff(grids.get(i)));
+    return Arrays.asList(diffs);
+  }
+
+  // Returns the squares painted the same color in both patterns
+  private long[] sameColor(GridPattern actual) {
+    long[] same = new long[this.painted.length];
+    int[] expected = this.squares;
+    int[] painted = actual.squares;
+    for (int at = 0; at < expected.length; at++) {
+      if (expected[at] == painted[at] && expected[at] != Grid.NO_COLOR) {
+        same[at >>> 6] |= 1L << at;
+      }
+    }
+    return same;
+  }
+
+  private void checkSize(GridPattern other) {
+    this.checkSize(other.width, other.height);
+  }
+
+  private void checkSize(Grid grid) {
+    this.checkSize(grid.getWidth(), grid.getHeight());
+  }
+
+  private void checkSize(int width, int height) {
+    if (width != this.width || height != this.height) {
+      throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_GRID);
+    }
+  }
+
+  static int count(long[] set) {
+    int count = 0;
+    for (long word : set) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+}
@@ -0,0 +1,33 @@
+package org.code.neighborhood.support;
+
+// The state of every square of a grid at one moment, taken with Grid.snapshot. A snapshot
+// shares storage with its grid until one of them is written to and never changes itself, so a
+// map can be loaded once and reset between runs without parsing it or copying its squares.
+public final class GridSnapshot {
+  private final int width;
+  private final int height;
+  private final GridStorage storage;
+
+  GridSnapshot(int width, int height, GridStorage storage) {
+    this.width = width;
+    this.height = height;
+    this.storage = storage;
+  }
+
+  public int getWidth() {
+    return this.width;
+  }
+
+  public int getHeight() {
+    return this.height;
+  }
+
+  GridStorage storage() {
+    return this.storage;
+  }
+
+  // Returns a new grid in the snapshot's state
+  public Grid newGrid() {
+    return new Grid(width, height, storage.copy());
+  }
+}
@@ -2,132 +2,140 @@ package org.code.neighborhood.support;
 
 import java.awt.Color;
 
+// A view of one square of a Grid. The square's state lives in the grid's arrays, so views are
+// cheap to create and two views of the same position are equal.
 public class GridSquare {
-  private Color color;
-  private boolean passable;
-  private int paintCount;
-
-  private enum SquareType {
-    WALL,
-    OPEN,
-    START,
-    FINISH,
-    OBSTACLE,
-    STARTANDFINISH,
-    UNKNOWN
-  };
+  enum SquareType {
+    WALL(false),
+    OPEN(true),
+    START(true),
+    FINISH(true),
+    OBSTACLE(false),
+    STARTANDFINISH(true),
+    UNKNOWN(false);
+
+    private static final SquareType[] TYPES = values();
+    // Indexed by the low byte of a stored square type so that corrupt values read as impassable
+    private static final boolean[] PASSABLE = new boolean[256];
+
+    static {
+      for (SquareType type : TYPES) {
+        PASSABLE[type.ordinal()] = type.passable;
+      }
+    }
+
+    private final boolean passable;
+
+    SquareType(boolean passable) {
+      this.passable = passable;
+    }
+
+    static SquareType fromTileType(int tileType) {
+      // Tile types 0-5 match the declaration order; anything else is unknown
+      return tileType >= 0 && tileType < UNKNOWN.ordinal() ? TYPES[tileType] : UNKNOWN;
+    }
 
-  private int assetId;
+    static boolean isPassable(int ordinal) {
+      return PASSABLE[ordinal & 0xFF];
+    }
+  };
 
-  private SquareType squareType;
+  private Grid grid;
+  private int x;
+  private int y;
 
   protected GridSquare(int tileType, int assetId, int value) {
-    this.setTileType(tileType);
-    this.assetId = assetId;
-    this.paintCount = value;
+    this.grid = new Grid(1, 1);
+    this.grid.initSquare(0, 0, tileType, assetId, value);
   }
 
   protected GridSquare(int tileType, int assetId) {
-    this.setTileType(tileType);
-    this.assetId = assetId;
-    this.paintCount = 0;
+    this(tileType, assetId, 0);
+  }
+
+  // Creates an independent copy of another square, including its paint
+  protected GridSquare(GridSquare other) {
+    this.grid = new Grid(1, 1);
+    this.grid.copySquare(0, 0, other.grid, other.x, other.y);
+  }
+
+  GridSquare(Grid grid, int x, int y) {
+    this.grid = grid;
+    this.x = x;
+    this.y = y;
+  }
+
+  // Copies this square into another grid and makes this object a view of that copy
+  void moveTo(Grid target, int targetX, int targetY) {
+    target.copySquare(targetX, targetY, this.grid, this.x, this.y);
+    this.grid = target;
+    this.x = targetX;
+    this.y = targetY;
   }
 
   // Sets the color of the square to the given color
   public void setColor(Color color) {
-    if (this.containsPaint()) {
-      throw new NeighborhoodRuntimeException(ExceptionKeys.INVALID_PAINT_LOCATION);
-    }
-    if (this.passable && this.paintCount == 0) {
-      this.color = color;
-    }
+    this.grid.setColor(this.x, this.y, color);
   }
 
   // Determines whether the given coordinate can be moved into
   public boolean isPassable() {
-    return this.passable;
+    return this.grid.isPassable(this.x, this.y);
   }
 
   // Decreases the paintCount by 1 if there is available paint
   public int collectPaint() {
-    if (this.containsPaint()) {
-      this.paintCount--;
-    } else {
-      System.out.println("There's no paint to collect here");
-    }
-    return this.paintCount;
+    return this.grid.collectPaint(this.x, this.y);
+  }
+
+  // Takes one unit of paint if the square has any, clearing the paint bucket once it is empty.
+  // Returns false if there was no paint. Safe to call from several painters at once.
+  public boolean takePaint() {
+    return this.grid.takePaint(this.x, this.y);
   }
 
   // Returns the square to a non-painted state
   public void removePaint() {
-    if (this.color != null) {
-      this.color = null;
-    } else {
-      System.out.println("There's no paint to remove here");
-    }
+    this.grid.removePaint(this.x, this.y);
   }
 
   // Returns true if the square has paint available to collect
   public boolean containsPaint() {
-    return this.paintCount > 0;
+    return this.grid.containsPaint(this.x, this.y);
   }
 
   public String getPrintableDescription() {
-    if (!this.passable) {
-      return "x";
-    } else if (this.color != null) {
-      return String.valueOf(this.color);
-    } else {
-      return String.valueOf(this.paintCount);
-    }
+    return this.grid.printableDescription(this.x, this.y);
   }
 
   // Returns true if the color variable is populated
   public boolean hasColor() {
-    return this.color != null;
+    return this.grid.hasColor(this.x, this.y);
   }
 
   // Returns the color of the square
   public Color getColor() {
-    return this.color;
+    return this.grid.color(this.x, this.y);
   }
   public void setAssetID(int assetId) {
-    this.assetId = assetId;
-  } 
+    this.grid.setAssetId(this.x, this.y, assetId);
+  }
 
   public int getAssetID(){
-    return this.assetId;
-  }
-
-  private void setTileType(int tileType) {
-    switch (tileType) {
-      case 0:
-        this.squareType = SquareType.WALL;
-        this.passable = false;
-        break;
-      case 1:
-        this.squareType = SquareType.OPEN;
-        this.passable = true;
-        break;
-      case 2:
-        this.squareType = SquareType.START;
-        this.passable = true;
-        break;
-      case 3:
-        this.squareType = SquareType.FINISH;
-        this.passable = true;
-        break;
-      case 4:
-        this.squareType = SquareType.OBSTACLE;
-        this.passable = false;
-        break;
-      case 5:
-        this.squareType = SquareType.STARTANDFINISH;
-        this.passable = true;
-        break;
-      default:
-        this.squareType = SquareType.UNKNOWN;
-        this.passable = false;
+    return this.grid.assetId(this.x, this.y);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof GridSquare)) {
+      return false;
     }
+    GridSquare square = (GridSquare) other;
+    return this.grid == square.grid && this.x == square.x && this.y == square.y;
+  }
+
+  @Override
+  public int hashCode() {
+    return (System.identityHashCode(this.grid) * 31 + this.y) * 31 + this.x;
   }
 }
@@ -0,0 +1,261 @@
+package org.code.neighborhood.support;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts of what is on a grid, kept up to date as squares change so that questions such as "how
+// many squares are red" or "where is the nearest bucket" never scan the grid. A grid builds its
+// statistics with one scan the first time they are asked for; from then on every change to a
+// square updates them in constant time.
+//
+// The grid changes a square while holding the lock of the square's region, so the statistics
+// split by region lock rather than take a lock of their own: each region lock guards the color
+// counts of the squares it covers, and the bucket index of its regions. Painters in different
+// regions never wait for each other, and the totals are LongAdders. Reading a count takes each
+// region lock in turn, so it may not match any single moment while painters are working.
+//
+// Buckets holding paint are indexed by the same 64x64 regions the grid locks. Each region keeps
+// a count and one 64-bit row mask per row, so a search for the nearest bucket skips empty
+// regions and tests 64 squares at a time in the others.
+public final class GridStats {
+  private static final int REGION_SHIFT = ChunkedGridStorage.CHUNK_SHIFT;
+  private static final int REGION_SIZE = 1 << REGION_SHIFT;
+  private static final int REGION_MASK = REGION_SIZE - 1;
+
+  // The grid whose region locks guard these statistics
+  private final Grid grid;
+  private final int regionsWide;
+  private final int regionsHigh;
+  // Color counts of the squares under each region lock, created when the lock first sees a color
+  private final ColorCounts[] colorCounts;
+  // Every color counted, in the order first seen. Only touched when a lock sees a new color.
+  private final ColorIndex colorOrder = new ColorIndex();
+  private final LongAdder paintedCount = new LongAdder();
+  private final LongAdder bucketCount = new LongAdder();
+  private final LongAdder paintRemaining = new LongAdder();
+  private final int[] regionBuckets;
+  // Bit x & REGION_MASK of word region * REGION_SIZE + (y & REGION_MASK) is set if (x, y) holds
+  // a bucket with paint
+  private final long[] bucketRows;
+
+  private static final class ColorCounts {
+    final ColorIndex colors = new ColorIndex();
+    int[] counts = new int[8];
+  }
+
+  private GridStats(Grid grid, int width, int height) {
+    this.grid = grid;
+    this.colorCounts = new ColorCounts[grid.regionLockCount()];
+    this.regionsWide = (width + REGION_MASK) >> REGION_SHIFT;
+    this.regionsHigh = (height + REGION_MASK) >> REGION_SHIFT;
+    this.regionBuckets = new int[this.regionsWide * this.regionsHigh];
+    this.bucketRows = new long[this.regionBuckets.length * REGION_SIZE];
+  }
+
+  // Scans every square of a grid. Nothing else can see the statistics yet, so no lock is taken.
+  static GridStats of(Grid grid) {
+    int width = grid.getWidth();
+    int height = grid.getHeight();
+    GridStats stats = new GridStats(grid, width, height);
+    GridStorage storage = grid.storage();
+    int[] row = new int[width];
+    for (int y = 0; y < height; y++) {
+      storage.readColors(y, row);
+      for (int x = 0; x < width; x++) {
+        stats.colorChanged(x, y, Grid.NO_COLOR, row[x]);
+      }
+      storage.readPaintCounts(y, row);
+      for (int x = 0; x < width; x++) {
+        stats.paintChanged(x, y, 0, row[x]);
+      }
+    }
+    return stats;
+  }
+
+  // Called by the grid, holding the region lock of (x, y), when the square's color changes from
+  // before to after
+  void colorChanged(int x, int y, int before, int after) {
+    if (before == after) {
+      return;
+    }
+    int lock = this.grid.regionLockIndex(x, y);
+    ColorCounts counts = this.colorCounts[lock];
+    if (counts == null) {
+      counts = new ColorCounts();
+      this.colorCounts[lock] = counts;
+    }
+    if (before != Grid.NO_COLOR) {
+      counts.counts[counts.colors.find(before)]--;
+      this.paintedCount.decrement();
+    }
+    if (after != Grid.NO_COLOR) {
+      int known = counts.colors.size();
+      int slot = counts.colors.slotFor(after);
+      if (slot == known) {
+        synchronized (this.colorOrder) {
+          this.colorOrder.slotFor(after);
+        }
+        if (slot == counts.counts.length) {
+          counts.counts = Arrays.copyOf(counts.counts, slot * 2);
+        }
+      }
+      counts.counts[slot]++;
+      this.paintedCount.increment();
+    }
+  }
+
+  // Called by the grid, holding the region lock of (x, y), when the paint in the bucket on
+  // (x, y) changes from before to after
+  void paintChanged(int x, int y, int before, int after) {
+    if (before == after) {
+      return;
+    }
+    this.paintRemaining.add(Math.max(0, after) - Math.max(0, before));
+    boolean had = before > 0;
+    boolean has = after > 0;
+    if (had == has) {
+      return;
+    }
+    int region = (y >> REGION_SHIFT) * this.regionsWide + (x >> REGION_SHIFT);
+    int word = region * REGION_SIZE + (y & REGION_MASK);
+    long bit = 1L << (x & REGION_MASK);
+    if (has) {
+      this.bucketRows[word] |= bit;
+      this.regionBuckets[region]++;
+      this.bucketCount.increment();
+    } else {
+      this.bucketRows[word] &= ~bit;
+      this.regionBuckets[region]--;
+      this.bucketCount.decrement();
+    }
+  }
+
+  // Returns the number of squares with paint on them
+  public int getPaintedCount() {
+    return this.paintedCount.intValue();
+  }
+
+  // Returns the number of squares painted the given color
+  public int getPaintedCount(Color color) {
+    int argb = color.getRGB();
+    int total = 0;
+    for (int lock = 0; lock < this.colorCounts.length; lock++) {
+      synchronized (this.grid.regionLock(lock)) {
+        ColorCounts counts = this.colorCounts[lock];
+        int slot = counts == null ? -1 : counts.colors.find(argb);
+        if (slot >= 0) {
+          total += counts.counts[slot];
+        }
+      }
+    }
+    return total;
+  }
+
+  // Returns the number of squares painted each color, for every color on the grid, in the order
+  // the colors were first seen
+  public Map<Color, Integer> getColorCounts() {
+    int[] seen;
+    synchronized (this.colorOrder) {
+      seen = this.colorOrder.colors();
+    }
+    ColorIndex order = new ColorIndex();
+    for (int argb : seen) {
+      order.slotFor(argb);
+    }
+    int[] totals = new int[order.size()];
+    for (int lock = 0; lock < this.colorCounts.length; lock++) {
+      synchronized (this.grid.regionLock(lock)) {
+        ColorCounts counts = this.colorCounts[lock];
+        if (counts == null) {
+          continue;
+        }
+        for (int slot = 0; slot < counts.colors.size(); slot++) {
+          int at = order.find(counts.colors.colorAt(slot));
+          // Colors first seen after the order was copied are left for the next call
+          if (at >= 0) {
+            totals[at] += counts.counts[slot];
+          }
+        }
+      }
+    }
+    Map<Color, Integer> result = new LinkedHashMap<>();
+    for (int slot = 0; slot < totals.length; slot++) {
+      if (totals[slot] > 0) {
+        result.put(ColorHelpers.fromArgb(order.colorAt(slot)), totals[slot]);
+      }
+    }
+    return result;
+  }
+
+  // Returns the number of buckets that still hold paint
+  public int getBucketCount() {
+    return this.bucketCount.intValue();
+  }
+
+  // Returns the total paint left in all buckets
+  public long getPaintRemaining() {
+    return this.paintRemaining.sum();
+  }
+
+  // Returns {x, y} of the bucket holding paint that is the fewest steps from (x, y), ignoring
+  // walls, or null if no bucket holds paint. Ties go to the topmost, then leftmost, bucket.
+  public int[] nearestBucket(int x, int y) {
+    if (this.bucketCount.sum() == 0) {
+      return null;
+    }
+    int regionX = Math.max(0, Math.min(this.regionsWide - 1, x >> REGION_SHIFT));
+    int regionY = Math.max(0, Math.min(this.regionsHigh - 1, y >> REGION_SHIFT));
+    int maxRing = Math.max(this.regionsWide, this.regionsHigh);
+    long best = Long.MAX_VALUE;
+    int bestX = -1;
+    int bestY = -1;
+    for (int ring = 0; ring <= maxRing; ring++) {
+      // Every square in this ring of regions is at least this many steps away
+      if (ring > 0 && (long) (ring - 1) * REGION_SIZE + 1 > best) {
+        break;
+      }
+      for (int dy = -ring; dy <= ring; dy++) {
+        int step = dy == -ring || dy == ring ? 1 : Math.max(1, 2 * ring);
+        for (int dx = -ring; dx <= ring; dx += step) {
+          int cx = regionX + dx;
+          int cy = regionY + dy;
+          if (cx < 0 || cy < 0 || cx >= this.regionsWide || cy >= this.regionsHigh) {
+            continue;
+          }
+          int region = cy * this.regionsWide + cx;
+          synchronized (this.grid.regionLock(
+              this.grid.regionLockIndex(cx << REGION_SHIFT, cy << REGION_SHIFT))) {
+            if (this.regionBuckets[region] == 0) {
+              continue;
+            }
+            for (int row = 0; row < REGION_SIZE; row++) {
+              long word = this.bucketRows[region * REGION_SIZE + row];
+              while (word != 0) {
+                int squareX = (cx << REGION_SHIFT) + Long.numberOfTrailingZeros(word);
+                int squareY = (cy << REGION_SHIFT) + row;
+                word &= word - 1;
+                long distance = (long) Math.abs(squareX - x) + Math.abs(squareY - y);
+                if (distance < best || distance == best
+                    && (squareY < bestY || squareY == bestY && squareX < bestX)) {
+                  best = distance;
+                  bestX = squareX;
+                  bestY = squareY;
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+    return new int[] {bestX, bestY};
+  }
+
+  @Override
+  public String toString() {
+    return "Painted: " + this.getPaintedCount() + "   Buckets: " + this.getBucketCount()
+        + "   Paint left: " + this.getPaintRemaining();
+  }
+}
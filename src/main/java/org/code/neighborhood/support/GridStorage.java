@@ -0,0 +1,39 @@
+package org.code.neighborhood.support;
+
+// Holds the state of every square of a Grid. Square types are stored as GridSquare.SquareType
+// ordinals and colors as ARGB values, with Grid.NO_COLOR for unpainted squares.
+abstract class GridStorage {
+  abstract int squareType(int x, int y);
+
+  abstract int color(int x, int y);
+
+  abstract void setColor(int x, int y, int argb);
+
+  abstract int paintCount(int x, int y);
+
+  abstract void setPaintCount(int x, int y, int paintCount);
+
+  abstract int assetId(int x, int y);
+
+  abstract void setAssetId(int x, int y, int assetId);
+
+  // Sets every field of an unpainted square while the grid is being built
+  abstract void initSquare(int x, int y, int squareType, int assetId, int paintCount);
+
+  // Copies the colors of row y into row, which holds at least a row of squares
+  void readColors(int y, int[] row) {
+    for (int x = 0; x < row.length; x++) {
+      row[x] = this.color(x, y);
+    }
+  }
+
+  // Copies the paint counts of row y into row, which holds at least a row of squares
+  void readPaintCounts(int y, int[] row) {
+    for (int x = 0; x < row.length; x++) {
+      row[x] = this.paintCount(x, y);
+    }
+  }
+
+  // Returns storage with the same contents that can be changed independently of this one
+  abstract GridStorage copy();
+}
@@ -0,0 +1,22 @@
+package org.code.neighborhood.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps copies of every event it receives, mainly for tests. Call EventLog.flush before reading.
+public class MemoryEventSink implements EventSink {
+  private final List<PainterEvent> events = new ArrayList<>();
+
+  @Override
+  public synchronized void accept(PainterEvent event) {
+    this.events.add(event.copy());
+  }
+
+  public synchronized List<PainterEvent> getEvents() {
+    return new ArrayList<>(this.events);
+  }
+
+  public synchronized void clear() {
+    this.events.clear();
+  }
+}
@@ -0,0 +1,378 @@
+package org.code.neighborhood.support;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Shortest paths and reachability over the passable squares of a grid, for painters that walk
+// somewhere on their own, reference solutions and hint generators. Painters step north, east,
+// south or west, so every step costs the same.
+//
+// Walls never change once a grid is built, so everything here is computed at most once per
+// grid: connected regions when reachability is first asked about, and a distance field per
+// target, kept for the most recently used targets. Paths to a target with a field are read off
+// it in time proportional to their length; paths to any other target are found with A*.
+// Searches read each square's neighbors from the grid's neighbor masks.
+// The grid drops its navigator if its squares are rebuilt or a snapshot is restored.
+//
+// A navigator can be used from any number of threads.
+public final class Navigator {
+  // Distance fields are kept until together they hold this many squares, and at least one is
+  private static final long MAX_CACHED_SQUARES = 1 << 24;
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final Direction[] NO_STEPS = new Direction[0];
+
+  private final Grid grid;
+  private final int width;
+  private final int height;
+  private final Map<Integer, DistanceField> fields = new LinkedHashMap<>(16, 0.75f, true);
+  // The connected region of every square, numbered from 1, with 0 for impassable squares
+  private volatile int[] regions;
+
+  Navigator(Grid grid) {
+    this.grid = grid;
+    this.width = grid.getWidth();
+    this.height = grid.getHeight();
+  }
+
+  // The number of steps from every square to one target square, found by a breadth-first
+  // search outward from the target
+  public static final class DistanceField {
+    private final int width;
+    private final int height;
+    private final int targetX;
+    private final int targetY;
+    // Steps to the target, or -1 if the target cannot be reached
+    private final int[] distances;
+
+    private DistanceField(int width, int height, int targetX, int targetY, int[] distances) {
+      this.width = width;
+      this.height = height;
+      this.targetX = targetX;
+      this.targetY = targetY;
+      this.distances = distances;
+    }
+
+    public int getTargetX() {
+      return this.targetX;
+    }
+
+    public int getTargetY() {
+      return this.targetY;
+    }
+
+    // Returns the number of steps from (x, y) to the target, or -1 if it cannot be reached
+    public int getDistance(int x, int y) {
+      if (x < 0 || y < 0 || x >= this.width || y >= this.height) {
+        return -1;
+      }
+      return this.distances[y * this.width + x];
+    }
+
+    // Returns the direction of the first step from (x, y) towards the target, or null if the
+    // painter is already there or cannot get there
+    public Direction nextStep(int x, int y) {
+      int distance = this.getDistance(x, y);
+      if (distance <= 0) {
+        return null;
+      }
+      for (Direction direction : DIRECTIONS) {
+        if (this.getDistance(x + direction.getDx(), y + direction.getDy()) == distance - 1) {
+          return direction;
+        }
+      }
+      return null;
+    }
+
+    // Returns every step from (x, y) to the target, or null if it cannot be reached
+    public Direction[] path(int x, int y) {
+      int distance = this.getDistance(x, y);
+      if (distance < 0) {
+        return null;
+      }
+      Direction[] steps = new Direction[distance];
+      for (int i = 0; i < distance; i++) {
+        Direction step = this.nextStep(x, y);
+        steps[i] = step;
+        x += step.getDx();
+        y += step.getDy();
+      }
+      return steps;
+    }
+  }
+
+  // Returns the distance field for a target square, computing and caching it if needed. A target
+  // off the grid or in a wall gets a field in which nothing can reach it, which is not cached.
+  public DistanceField distancesTo(int targetX, int targetY) {
+    if (!this.grid.validLocation(targetX, targetY)) {
+      int[] unreachable = new int[this.width * this.height];
+      Arrays.fill(unreachable, -1);
+      return new DistanceField(this.width, this.height, targetX, targetY, unreachable);
+    }
+    Integer key = targetY * this.width + targetX;
+    synchronized (this.fields) {
+      DistanceField field = this.fields.get(key);
+      if (field != null) {
+        return field;
+      }
+    }
+    // Searching outside the lock lets other threads use the cache in the meantime
+    DistanceField field = new DistanceField(this.width, this.height, targetX, targetY,
+        this.search(targetX, targetY));
+    synchronized (this.fields) {
+      this.fields.put(key, field);
+      long cached = (long) this.fields.size() * this.width * this.height;
+      Iterator<DistanceField> eldest = this.fields.values().iterator();
+      while (cached > MAX_CACHED_SQUARES && this.fields.size() > 1) {
+        eldest.next();
+        eldest.remove();
+        cached -= (long) this.width * this.height;
+      }
+    }
+    return field;
+  }
+
+  // Returns the steps of a shortest path from one square to another, or null if there is none.
+  // Uses the target's distance field if it has one and A* otherwise.
+  public Direction[] path(int fromX, int fromY, int toX, int toY) {
+    if (!this.grid.validLocation(fromX, fromY) || !this.grid.validLocation(toX, toY)
+        || !this.isReachable(fromX, fromY, toX, toY)) {
+      return null;
+    }
+    DistanceField field;
+    synchronized (this.fields) {
+      field = this.fields.get(toY * this.width + toX);
+    }
+    if (field != null) {
+      return field.path(fromX, fromY);
+    }
+    return this.aStar(fromX, fromY, toX, toY);
+  }
+
+  // Returns whether a painter on one square could walk to the other
+  public boolean isReachable(int fromX, int fromY, int toX, int toY) {
+    if (!this.grid.validLocation(fromX, fromY) || !this.grid.validLocation(toX, toY)) {
+      return false;
+    }
+    int[] regions = this.regions();
+    return regions[fromY * this.width + fromX] == regions[toY * this.width + toX];
+  }
+
+  // Returns {x, y} of the bucket holding paint that the fewest steps lead to from (x, y), or
+  // null if no such bucket can be reached. Ties go to the bucket found first searching north,
+  // east, south, then west.
+  public int[] nearestBucket(int x, int y) {
+    if (!this.grid.validLocation(x, y)) {
+      return null;
+    }
+    int[] queue = new int[64];
+    long[] visited = new long[(int) (((long) this.width * this.height + 63) >>> 6)];
+    int start = y * this.width + x;
+    visited[start >>> 6] |= 1L << start;
+    queue[0] = start;
+    int head = 0;
+    int tail = 1;
+    while (head < tail) {
+      int square = queue[head++];
+      int squareX = square % this.width;
+      int squareY = square / this.width;
+      if (this.grid.containsPaint(squareX, squareY)) {
+        return new int[] {squareX, squareY};
+      }
+      int moves = this.grid.moves(squareX, squareY);
+      for (Direction direction : DIRECTIONS) {
+        if ((moves & (1 << direction.ordinal())) == 0) {
+          continue;
+        }
+        int nextX = squareX + direction.getDx();
+        int nextY = squareY + direction.getDy();
+        int next = nextY * this.width + nextX;
+        if ((visited[next >>> 6] & (1L << next)) != 0) {
+          continue;
+        }
+        visited[next >>> 6] |= 1L << next;
+        if (tail == queue.length) {
+          queue = Arrays.copyOf(queue, tail * 2);
+        }
+        queue[tail++] = next;
+      }
+    }
+    return null;
+  }
+
+  // Numbers the connected regions of the grid the first time they are needed
+  private int[] regions() {
+    int[] regions = this.regions;
+    if (regions == null) {
+      synchronized (this) {
+        regions = this.regions;
+        if (regions == null) {
+          regions = this.label();
+          this.regions = regions;
+        }
+      }
+    }
+    return regions;
+  }
+
+  private int[] label() {
+    int[] regions = new int[this.width * this.height];
+    int[] queue = new int[regions.length];
+    int region = 0;
+    for (int start = 0; start < regions.length; start++) {
+      if (regions[start] != 0 || !this.grid.isPassable(start % this.width, start / this.width)) {
+        continue;
+      }
+      region++;
+      regions[start] = region;
+      queue[0] = start;
+      int head = 0;
+      int tail = 1;
+      while (head < tail) {
+        int square = queue[head++];
+        int x = square % this.width;
+        int y = square / this.width;
+        int moves = this.grid.moves(x, y);
+        for (Direction direction : DIRECTIONS) {
+          int next = square + direction.getDy() * this.width + direction.getDx();
+          if ((moves & (1 << direction.ordinal())) != 0 && regions[next] == 0) {
+            regions[next] = region;
+            queue[tail++] = next;
+          }
+        }
+      }
+    }
+    return regions;
+  }
+
+  // Breadth-first search outward from a target, giving the steps from every square to it
+  private int[] search(int targetX, int targetY) {
+    int[] distances = new int[this.width * this.height];
+    Arrays.fill(distances, -1);
+    if (!this.grid.validLocation(targetX, targetY)) {
+      return distances;
+    }
+    int[] queue = new int[distances.length];
+    int target = targetY * this.width + targetX;
+    distances[target] = 0;
+    queue[0] = target;
+    int head = 0;
+    int tail = 1;
+    while (head < tail) {
+      int square = queue[head++];
+      int x = square % this.width;
+      int y = square / this.width;
+      int distance = distances[square] + 1;
+      int moves = this.grid.moves(x, y);
+      for (Direction direction : DIRECTIONS) {
+        int next = square + direction.getDy() * this.width + direction.getDx();
+        if ((moves & (1 << direction.ordinal())) != 0 && distances[next] < 0) {
+          distances[next] = distance;
+          queue[tail++] = next;
+        }
+      }
+    }
+    return distances;
+  }
+
+  // A* with the Manhattan distance, which never overestimates on a four-way grid. The open set
+  // is a binary heap of longs holding the estimated total cost above the square's index.
+  private Direction[] aStar(int fromX, int fromY, int toX, int toY) {
+    int start = fromY * this.width + fromX;
+    int goal = toY * this.width + toX;
+    if (start == goal) {
+      return NO_STEPS;
+    }
+    int[] costs = new int[this.width * this.height];
+    Arrays.fill(costs, -1);
+    // The direction of the step that reached each square
+    byte[] cameBy = new byte[costs.length];
+    long[] heap = new long[64];
+    int heapSize = 0;
+    costs[start] = 0;
+    heap[heapSize++] = (long) (Math.abs(toX - fromX) + Math.abs(toY - fromY)) << 32 | start;
+    while (heapSize > 0) {
+      long top = heap[0];
+      heap[0] = heap[--heapSize];
+      siftDown(heap, heapSize);
+      int square = (int) top;
+      int x = square % this.width;
+      int y = square / this.width;
+      int cost = costs[square];
+      // Skip entries left behind when a square was reached more cheaply
+      if ((int) (top >>> 32) != cost + Math.abs(toX - x) + Math.abs(toY - y)) {
+        continue;
+      }
+      if (square == goal) {
+        break;
+      }
+      int moves = this.grid.moves(x, y);
+      for (Direction direction : DIRECTIONS) {
+        if ((moves & (1 << direction.ordinal())) == 0) {
+          continue;
+        }
+        int nextX = x + direction.getDx();
+        int nextY = y + direction.getDy();
+        int next = nextY * this.width + nextX;
+        if (costs[next] >= 0 && costs[next] <= cost + 1) {
+          continue;
+        }
+        costs[next] = cost + 1;
+        cameBy[next] = (byte) direction.ordinal();
+        if (heapSize == heap.length) {
+          heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        long estimate = cost + 1 + Math.abs(toX - nextX) + Math.abs(toY - nextY);
+        heap[heapSize] = estimate << 32 | next;
+        siftUp(heap, heapSize++);
+      }
+    }
+    if (costs[goal] < 0) {
+      return null;
+    }
+    Direction[] steps = new Direction[costs[goal]];
+    for (int i = steps.length - 1, square = goal; i >= 0; i--) {
+      Direction step = DIRECTIONS[cameBy[square]];
+      steps[i] = step;
+      square -= step.getDy() * this.width + step.getDx();
+    }
+    return steps;
+  }
+
+  private static void siftUp(long[] heap, int at) {
+    long entry = heap[at];
+    while (at > 0) {
+      int parent = (at - 1) >>> 1;
+      if (heap[parent] <= entry) {
+        break;
+      }
+      heap[at] = heap[parent];
+      at = parent;
+    }
+    heap[at] = entry;
+  }
+
+  private static void siftDown(long[] heap, int size) {
+    if (size == 0) {
+      return;
+    }
+    long entry = heap[0];
+    int at = 0;
+    while (true) {
+      int child = 2 * at + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && heap[child + 1] < heap[child]) {
+        child++;
+      }
+      if (heap[child] >= entry) {
+        break;
+      }
+      heap[at] = heap[child];
+      at = child;
+    }
+    heap[at] = entry;
+  }
+}
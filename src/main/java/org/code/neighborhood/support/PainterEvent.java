@@ -0,0 +1,93 @@
+package org.code.neighborhood.support;
+
+// One painter action recorded in the EventLog. Sinks are handed a single reused instance per
+// drain, so an event must be copied if it is kept after accept returns.
+public class PainterEvent {
+  public enum Kind {
+    CREATE,
+    TURN,
+    MOVE,
+    PAINT,
+    SCRAPE,
+    TAKE_PAINT,
+    IS_ON_PAINT,
+    IS_ON_BUCKET,
+    CAN_MOVE_FORWARD,
+    CAN_MOVE_LEFT,
+    CAN_MOVE_RIGHT,
+    CAN_MOVE_BACKWARD,
+    HIDE,
+    SHOW,
+    SHOW_BUCKETS,
+    HIDE_BUCKETS,
+    // Bulk actions: each is one event for many squares. A line or rectangle runs from the
+    // painter's previous position to its position after the event; a fill starts under it.
+    PAINT_LINE,
+    PAINT_RECT,
+    FILL;
+
+    private static final Kind[] KINDS = values();
+
+    static Kind fromOrdinal(int ordinal) {
+      return KINDS[ordinal];
+    }
+  }
+
+  // Number of ints an event takes up in the log
+  static final int SIZE = 8;
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final int[] fields = new int[SIZE];
+
+  PainterEvent() {}
+
+  // Copies the event stored at offset in the given array
+  void load(int[] events, int offset) {
+    System.arraycopy(events, offset, this.fields, 0, SIZE);
+  }
+
+  // Returns an independent copy that stays valid after the sink returns
+  public PainterEvent copy() {
+    PainterEvent copy = new PainterEvent();
+    copy.load(this.fields, 0);
+    return copy;
+  }
+
+  public int getPainterId() {
+    return this.fields[0];
+  }
+
+  public Kind getKind() {
+    return Kind.fromOrdinal(this.fields[1]);
+  }
+
+  // Position of the painter after the action
+  public int getX() {
+    return this.fields[2];
+  }
+
+  public int getY() {
+    return this.fields[3];
+  }
+
+  // Direction the painter faces after the action
+  public Direction getDirection() {
+    return DIRECTIONS[this.fields[4]];
+  }
+
+  // ARGB color painted by a PAINT action, otherwise 0
+  public int getColor() {
+    return this.fields[5];
+  }
+
+  // Paint left in the painter's bucket after the action
+  public int getPaint() {
+    return this.fields[6];
+  }
+
+  // The answer to a question such as IS_ON_PAINT or CAN_MOVE_LEFT, and for TAKE_PAINT whether
+  // there was paint to take
+  public boolean getResult() {
+    return this.fields[7] != 0;
+  }
+}
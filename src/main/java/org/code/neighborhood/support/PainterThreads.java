@@ -0,0 +1,31 @@
+package org.code.neighborhood.support;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Threads for running many painters at once against a shared grid
+public final class PainterThreads {
+  private PainterThreads() {}
+
+  // Returns an executor that runs every task on its own virtual thread when the JDK has them
+  // (Java 21 and later). On older JDKs tasks share a pool with one platform thread per core.
+  public static ExecutorService newExecutor() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+  }
+
+  // Returns true if newExecutor runs tasks on virtual threads
+  public static boolean hasVirtualThreads() {
+    try {
+      Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package org.code.neighborhood.support;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+// Numbers the colors painters use and keeps one Color for each, so that turning a stored ARGB
+// value back into a Color, to draw a square or answer getColor(), never allocates. The named
+// colors are numbered first and map to the java.awt.Color constants. Index 0 stands for an
+// unpainted square and has no color.
+//
+// A program painting with hex or RGB colors could use millions of them, so only the first
+// MAX_COLORS are kept; colors past that are returned as new Colors and not numbered.
+//
+// Lookups read an immutable table without locking. Adding a color copies the table, which is
+// rare enough after the first few paint calls that it costs nothing overall.
+public final class Palette {
+  static final int MAX_COLORS = 4096;
+
+  private static final Color[] NAMED = {
+    Color.BLACK, Color.BLUE, Color.CYAN, Color.GRAY, Color.GREEN, Color.MAGENTA, Color.ORANGE,
+    Color.PINK, Color.RED, Color.WHITE, Color.YELLOW
+  };
+
+  private static volatile Table table = Table.named();
+
+  private Palette() {}
+
+  // Open addressing over ARGB values, as in ColorIndex, with colors[i] the Color of index i
+  private static final class Table {
+    final int[] keys;
+    // One more than the index of the color in keys at the same position, or 0 for an empty slot
+    final int[] slots;
+    final Color[] colors;
+
+    private Table(int[] keys, int[] slots, Color[] colors) {
+      this.keys = keys;
+      this.slots = slots;
+      this.colors = colors;
+    }
+
+    static Table named() {
+      Table table = new Table(new int[32], new int[32], new Color[] {null});
+      for (Color color : NAMED) {
+        table = table.with(color);
+      }
+      return table;
+    }
+
+    int find(int argb) {
+      int mask = this.keys.length - 1;
+      int at = hash(argb) & mask;
+      while (this.slots[at] != 0) {
+        if (this.keys[at] == argb) {
+          return this.slots[at] - 1;
+        }
+        at = (at + 1) & mask;
+      }
+      return -1;
+    }
+
+    // Returns a copy of this table with a color added, keeping the load factor under a half
+    Table with(Color color) {
+      int index = this.colors.length;
+      Color[] colors = Arrays.copyOf(this.colors, index + 1);
+      colors[index] = color;
+      int capacity = this.keys.length;
+      while (colors.length * 2 > capacity) {
+        capacity *= 2;
+      }
+      int[] keys = new int[capacity];
+      int[] slots = new int[capacity];
+      for (int i = 1; i < colors.length; i++) {
+        int at = hash(colors[i].getRGB()) & (capacity - 1);
+        while (slots[at] != 0) {
+          at = (at + 1) & (capacity - 1);
+        }
+        keys[at] = colors[i].getRGB();
+        slots[at] = i + 1;
+      }
+      return new Table(keys, slots, colors);
+    }
+  }
+
+  // Returns the index of a color, numbering it if it has not been seen before, or -1 if the
+  // palette is full. Grid.NO_COLOR is index 0.
+  public static int indexOf(int argb) {
+    if (argb == Grid.NO_COLOR) {
+      return 0;
+    }
+    int index = table.find(argb);
+    if (index >= 0) {
+      return index;
+    }
+    synchronized (Palette.class) {
+      Table current = table;
+      index = current.find(argb);
+      if (index >= 0) {
+        return index;
+      }
+      if (current.colors.length > MAX_COLORS) {
+        return -1;
+      }
+      table = current.with(new Color(argb, true));
+      return current.colors.length;
+    }
+  }
+
+  // Returns the color with the given index, or null for index 0
+  public static Color color(int index) {
+    return table.colors[index];
+  }
+
+  // Returns the palette's Color for an ARGB value, or null for Grid.NO_COLOR. Colors that do not
+  // fit in the palette are returned as new Colors.
+  public static Color colorOf(int argb) {
+    if (argb == Grid.NO_COLOR) {
+      return null;
+    }
+    Table current = table;
+    int index = current.find(argb);
+    if (index >= 0) {
+      return current.colors[index];
+    }
+    index = indexOf(argb);
+    return index >= 0 ? color(index) : new Color(argb, true);
+  }
+
+  // Returns the number of colors numbered so far, including the named colors
+  public static int size() {
+    return table.colors.length - 1;
+  }
+
+  private static int hash(int argb) {
+    int h = argb * 0x9E3779B1;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,78 @@
+package org.code.neighborhood.support;
+
+// Which squares of a grid a painter can enter, and for every square a 4-bit mask of the
+// neighbors a painter standing there could step to, with bit Direction.ordinal() set if that way
+// is open. Both are packed into one byte per square, so checking a move is one array read and a
+// bit test instead of four bounds checks and a tile type lookup, and a search reads a square's
+// four neighbors at once.
+//
+// Walls never change once a grid is built, so the masks are computed in one pass over the grid
+// the first time a square's passability is asked about, and never written again. The grid drops
+// its passability if its squares are rebuilt or a snapshot is restored. Only grids small enough
+// for array storage keep one; larger grids check their storage directly rather than spend a
+// byte per square.
+final class Passability {
+  // Set in a square's mask if the square itself is passable
+  private static final int OPEN = 1 << 4;
+
+  // The masks of the squares in row order
+  private final byte[] moves;
+  private final int width;
+
+  Passability(Grid grid) {
+    int width = grid.getWidth();
+    int height = grid.getHeight();
+    GridStorage storage = grid.storage();
+    this.width = width;
+    this.moves = new byte[width * height];
+    for (int y = 0, i = 0; y < height; y++) {
+      for (int x = 0; x < width; x++, i++) {
+        if (GridSquare.SquareType.isPassable(storage.squareType(x, y))) {
+          this.moves[i] = OPEN;
+        }
+      }
+    }
+    for (int y = 0, i = 0; y < height; y++) {
+      for (int x = 0; x < width; x++, i++) {
+        int mask = 0;
+        if (y > 0 && this.isOpen(i - width)) {
+          mask |= 1 << Direction.NORTH.ordinal();
+        }
+        if (x < width - 1 && this.isOpen(i + 1)) {
+          mask |= 1 << Direction.EAST.ordinal();
+        }
+        if (y < height - 1 && this.isOpen(i + width)) {
+          mask |= 1 << Direction.SOUTH.ordinal();
+        }
+        if (x > 0 && this.isOpen(i - 1)) {
+          mask |= 1 << Direction.WEST.ordinal();
+        }
+        this.moves[i] |= (byte) mask;
+      }
+    }
+  }
+
+  // Returns whether a grid of this size keeps its passability packed
+  static boolean packs(int width, int height) {
+    return (long) width * height <= Grid.CHUNKED_STORAGE_THRESHOLD;
+  }
+
+  // Returns whether (x, y), which must be on the grid, can be entered
+  boolean isPassable(int x, int y) {
+    return this.isOpen(y * this.width + x);
+  }
+
+  // Returns whether a painter on (x, y), which must be on the grid, could step in a direction
+  boolean canMove(int x, int y, Direction direction) {
+    return (this.moves[y * this.width + x] & (1 << direction.ordinal())) != 0;
+  }
+
+  // Returns the neighbor mask of (x, y), which must be on the grid
+  int moves(int x, int y) {
+    return this.moves[y * this.width + x] & 0xF;
+  }
+
+  private boolean isOpen(int i) {
+    return (this.moves[i] & OPEN) != 0;
+  }
+}
@@ -0,0 +1,228 @@
+package org.code.neighborhood.support;
+
+import java.util.Arrays;
+
+// Decouples what is shown on screen from the program that moves the painters. Painter actions
+// are applied to the world's grid immediately and recorded here; a display then plays them back
+// one at a time onto its own copy of the grid at whatever pace it likes. Recording may happen on
+// any thread. Playback and reads of the display state must all happen on one thread, normally
+// the Swing event thread.
+//
+// At most maxPending steps are held. A painter recording past that waits until the display has
+// played some back, so a program that never ends animates forever instead of filling the heap.
+public class PlaybackQueue {
+  public static final int DEFAULT_MAX_PENDING = 1 << 16;
+
+  // Each recorded step is STEP_SIZE ints: painter, x, y, direction, flags, color, paint, asset.
+  // A step painting many squares at once is followed by its (y, fromX, toX) row spans, and
+  // holds the span count in place of the paint.
+  private static final int STEP_SIZE = 8;
+  private static final int FLAG_CREATE = 1;
+  private static final int FLAG_SQUARE = 2;
+  private static final int FLAG_SPANS = 4;
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final Grid model;
+  private final Grid displayGrid;
+  private final int maxPending;
+  private int[] steps = new int[STEP_SIZE * 64];
+  private int head;
+  private int tail;
+  private int pending;
+
+  // Display state of each painter, indexed by the slot returned from addPainter
+  private int painterCount;
+  private int[] painterXs = new int[4];
+  private int[] painterYs = new int[4];
+  private Direction[] painterDirections = new Direction[4];
+  private boolean[] painterVisible = new boolean[4];
+
+  // Starts showing the given grid as it is right now
+  public PlaybackQueue(Grid model) {
+    this(model, DEFAULT_MAX_PENDING);
+  }
+
+  public PlaybackQueue(Grid model, int maxPending) {
+    if (maxPending <= 0) {
+      throw new IllegalArgumentException("Queue size must be positive: " + maxPending);
+    }
+    this.model = model;
+    this.displayGrid = model.copy();
+    this.maxPending = maxPending;
+  }
+
+  // The grid as of the last step played back
+  public Grid getDisplayGrid() {
+    return this.displayGrid;
+  }
+
+  // Registers a painter and queues its appearance at (x, y). Returns the painter's slot.
+  public synchronized int addPainter(int x, int y, Direction direction) {
+    int slot = this.painterCount++;
+    if (slot == this.painterXs.length) {
+      int capacity = slot * 2;
+      this.painterXs = Arrays.copyOf(this.painterXs, capacity);
+      this.painterYs = Arrays.copyOf(this.painterYs, capacity);
+      this.painterDirections = Arrays.copyOf(this.painterDirections, capacity);
+      this.painterVisible = Arrays.copyOf(this.painterVisible, capacity);
+    }
+    this.append(slot, x, y, direction, FLAG_CREATE);
+    return slot;
+  }
+
+  // Queues one painter action: the painter's position and direction afterwards and, if the
+  // action changed the square under the painter, that square's new contents
+  public synchronized void record(int slot, int x, int y, Direction direction, boolean squareChanged) {
+    this.append(slot, x, y, direction, squareChanged ? FLAG_SQUARE : 0);
+  }
+
+  // Queues one action that painted many squares with one color, as (y, fromX, toX) row spans,
+  // and left the painter at (x, y). The whole action plays back as a single step.
+  public synchronized void recordSpans(int slot, int x, int y, Direction direction, int argb,
+      int[] spans) {
+    int at = this.append(slot, x, y, direction, FLAG_SPANS, spans.length);
+    this.steps[at + 5] = argb;
+    this.steps[at + 6] = spans.length / 3;
+    System.arraycopy(spans, 0, this.steps, at + STEP_SIZE, spans.length);
+  }
+
+  private int append(int slot, int x, int y, Direction direction, int flags) {
+    return this.append(slot, x, y, direction, flags, 0);
+  }
+
+  // Appends a step followed by extra ints and returns where it starts, first waiting for room
+  // if the queue is full. An interrupted painter stops waiting and goes over the limit.
+  private int append(int slot, int x, int y, Direction direction, int flags, int extra) {
+    boolean interrupted = false;
+    while (this.pending >= this.maxPending && !interrupted) {
+      try {
+        this.wait();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (this.tail + STEP_SIZE + extra > this.steps.length) {
+      this.compact(STEP_SIZE + extra);
+    }
+    int[] steps = this.steps;
+    int at = this.tail;
+    steps[at] = slot;
+    steps[at + 1] = x;
+    steps[at + 2] = y;
+    steps[at + 3] = direction.ordinal();
+    steps[at + 4] = flags;
+    if ((flags & FLAG_SQUARE) != 0) {
+      GridStorage storage = this.model.storage();
+      steps[at + 5] = storage.color(x, y);
+      steps[at + 6] = storage.paintCount(x, y);
+      steps[at + 7] = storage.assetId(x, y);
+    }
+    this.tail = at + STEP_SIZE + extra;
+    this.pending++;
+    return at;
+  }
+
+  // Drops steps that have already been played, growing the buffer if it is still too full to
+  // take needed more ints
+  private void compact(int needed) {
+    int queued = this.tail - this.head;
+    int capacity = this.steps.length;
+    while (queued + needed > capacity / 2) {
+      capacity *= 2;
+    }
+    int[] target = capacity != this.steps.length ? new int[capacity] : this.steps;
+    System.arraycopy(this.steps, this.head, target, 0, queued);
+    this.steps = target;
+    this.head = 0;
+    this.tail = queued;
+  }
+
+  // Returns the number of steps recorded but not yet played
+  public synchronized int pending() {
+    return this.pending;
+  }
+
+  // Plays the oldest recorded step onto the display state. Returns false if nothing was queued.
+  public synchronized boolean playNext() {
+    if (this.head == this.tail) {
+      return false;
+    }
+    int[] steps = this.steps;
+    int at = this.head;
+    int slot = steps[at];
+    int x = steps[at + 1];
+    int y = steps[at + 2];
+    int flags = steps[at + 4];
+
+    if (this.painterVisible[slot]) {
+      this.displayGrid.markDirty(this.painterXs[slot], this.painterYs[slot]);
+    }
+    if ((flags & FLAG_CREATE) != 0) {
+      this.painterVisible[slot] = true;
+    }
+    this.painterXs[slot] = x;
+    this.painterYs[slot] = y;
+    this.painterDirections[slot] = DIRECTIONS[steps[at + 3]];
+    int next = at + STEP_SIZE;
+    if ((flags & FLAG_SQUARE) != 0) {
+      this.displayGrid.restoreSquare(x, y, steps[at + 5], steps[at + 6], steps[at + 7]);
+    }
+    if ((flags & FLAG_SPANS) != 0) {
+      next += this.playSpans(steps, at + STEP_SIZE, steps[at + 6], steps[at + 5]);
+    }
+    this.displayGrid.markDirty(x, y);
+
+    if (this.pending-- == this.maxPending) {
+      this.notifyAll();
+    }
+    this.head = next;
+    if (this.head == this.tail) {
+      this.head = 0;
+      this.tail = 0;
+    }
+    return true;
+  }
+
+  // Paints the row spans of a bulk step onto the display grid. Returns the ints they took up.
+  private int playSpans(int[] steps, int at, int spanCount, int argb) {
+    Grid grid = this.displayGrid;
+    for (int i = 0; i < spanCount; i++) {
+      int y = steps[at + i * 3];
+      for (int x = steps[at + i * 3 + 1], to = steps[at + i * 3 + 2]; x <= to; x++) {
+        grid.restoreSquare(x, y, argb, grid.paintCount(x, y), grid.assetId(x, y));
+      }
+    }
+    return spanCount * 3;
+  }
+
+  // Plays every recorded step
+  public synchronized void playAll() {
+    while (this.playNext()) {
+      // keep playing
+    }
+  }
+
+  public synchronized int painterCount() {
+    return this.painterCount;
+  }
+
+  // The display state of the painter in the given slot
+  public boolean isPainterVisible(int slot) {
+    return this.painterVisible[slot];
+  }
+
+  public int painterX(int slot) {
+    return this.painterXs[slot];
+  }
+
+  public int painterY(int slot) {
+    return this.painterYs[slot];
+  }
+
+  public Direction painterDirection(int slot) {
+    return this.painterDirections[slot];
+  }
+}
@@ -0,0 +1,147 @@
+package org.code.neighborhood.support;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// The actions of a recorded run, in order, as a flat array of ints. Only actions that change the
+// world or a painter are kept; questions such as canMove are left out. Painters are numbered in
+// the order they appear in the trace. Record a trace with TraceRecorder and play it back with
+// TraceReplayer.
+//
+// File layout, little-endian:
+//   0   magic "NBTR"
+//   4   int format version
+//   8   int step count
+//   12  int painter count
+//   16  int[step count * STEP_SIZE] steps
+public final class Trace {
+  // Each step is: painter << 8 | kind << 2 | direction, x, y, color, paint left
+  static final int STEP_SIZE = 5;
+  private static final int HEADER_SIZE = 16;
+  private static final byte[] MAGIC = {'N', 'B', 'T', 'R'};
+  private static final int VERSION = 1;
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private int[] steps;
+  private int size;
+  private int painterCount;
+
+  Trace() {
+    this(new int[STEP_SIZE * 1024], 0, 0);
+  }
+
+  private Trace(int[] steps, int size, int painterCount) {
+    this.steps = steps;
+    this.size = size;
+    this.painterCount = painterCount;
+  }
+
+  void append(int painter, PainterEvent.Kind kind, int x, int y, Direction direction, int color,
+      int paint) {
+    int at = this.size * STEP_SIZE;
+    if (at + STEP_SIZE > this.steps.length) {
+      this.steps = Arrays.copyOf(this.steps, this.steps.length * 2);
+    }
+    this.steps[at] = painter << 8 | kind.ordinal() << 2 | direction.ordinal();
+    this.steps[at + 1] = x;
+    this.steps[at + 2] = y;
+    this.steps[at + 3] = color;
+    this.steps[at + 4] = paint;
+    this.size++;
+    this.painterCount = Math.max(this.painterCount, painter + 1);
+  }
+
+  // Returns the number of steps in the trace
+  public int size() {
+    return this.size;
+  }
+
+  public int getPainterCount() {
+    return this.painterCount;
+  }
+
+  int painter(int step) {
+    return this.steps[step * STEP_SIZE] >>> 8;
+  }
+
+  PainterEvent.Kind kind(int step) {
+    return PainterEvent.Kind.fromOrdinal((this.steps[step * STEP_SIZE] >> 2) & 0x3F);
+  }
+
+  Direction direction(int step) {
+    return DIRECTIONS[this.steps[step * STEP_SIZE] & 3];
+  }
+
+  int x(int step) {
+    return this.steps[step * STEP_SIZE + 1];
+  }
+
+  int y(int step) {
+    return this.steps[step * STEP_SIZE + 2];
+  }
+
+  int color(int step) {
+    return this.steps[step * STEP_SIZE + 3];
+  }
+
+  int paint(int step) {
+    return this.steps[step * STEP_SIZE + 4];
+  }
+
+  public void write(Path path) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + this.size * STEP_SIZE * 4)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    buffer.put(MAGIC).putInt(VERSION).putInt(this.size).putInt(this.painterCount);
+    buffer.asIntBuffer().put(this.steps, 0, this.size * STEP_SIZE);
+    buffer.rewind();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  public static Trace read(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long fileSize = channel.size();
+      if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+        throw new IOException("Not a trace file: " + path);
+      }
+      ByteBuffer buffer = ByteBuffer.allocate((int) fileSize).order(ByteOrder.LITTLE_ENDIAN);
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        // keep reading
+      }
+      buffer.flip();
+      for (int i = 0; i < MAGIC.length; i++) {
+        if (buffer.get(i) != MAGIC[i]) {
+          throw new IOException("Not a trace file: " + path);
+        }
+      }
+      int size = buffer.getInt(8);
+      int painterCount = buffer.getInt(12);
+      if (buffer.getInt(4) != VERSION || size < 0 || painterCount < 0
+          || fileSize != HEADER_SIZE + (long) size * STEP_SIZE * 4) {
+        throw new IOException("Not a trace file: " + path);
+      }
+      buffer.position(HEADER_SIZE);
+      IntBuffer ints = buffer.asIntBuffer();
+      int[] steps = new int[Math.max(STEP_SIZE, size * STEP_SIZE)];
+      ints.get(steps, 0, size * STEP_SIZE);
+      // Replaying indexes painters and kinds by these, so a damaged step must not get that far
+      int kinds = PainterEvent.Kind.values().length;
+      for (int at = 0; at < size * STEP_SIZE; at += STEP_SIZE) {
+        if (steps[at] >>> 8 >= painterCount || ((steps[at] >> 2) & 0x3F) >= kinds) {
+          throw new IOException("Not a trace file: " + path);
+        }
+      }
+      return new Trace(steps, size, painterCount);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package org.code.neighborhood.support;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Records painter actions as a Trace. A recorder started on an EventLog records every painter
+// that logs to it while it is attached, which leaves out worlds with logging turned off. A
+// recorder started on a World records its painters' actions as they take them, whether or not
+// they are logged, as batch runs need.
+//
+//   TraceRecorder recorder = TraceRecorder.start();
+//   ... run the program ...
+//   Trace trace = recorder.stop();
+public class TraceRecorder implements EventSink {
+  // The log or world being recorded; the other is null
+  private final EventLog log;
+  private final World world;
+  private final Trace trace = new Trace();
+  // Maps painter ids from the log to painter numbers in the trace
+  private final Map<Integer, Integer> painters = new HashMap<>();
+
+  private TraceRecorder(EventLog log, World world) {
+    this.log = log;
+    this.world = world;
+  }
+
+  // Starts recording the actions of every painter
+  public static TraceRecorder start() {
+    return start(EventLog.get());
+  }
+
+  public static TraceRecorder start(EventLog log) {
+    TraceRecorder recorder = new TraceRecorder(log, null);
+    log.addSink(recorder);
+    return recorder;
+  }
+
+  // Starts recording the actions of the painters in one world, replacing any recorder already
+  // started on it
+  public static TraceRecorder start(World world) {
+    TraceRecorder recorder = new TraceRecorder(null, world);
+    world.setRecorder(recorder);
+    return recorder;
+  }
+
+  @Override
+  public void accept(PainterEvent event) {
+    this.record(event.getPainterId(), event.getKind(), event.getX(), event.getY(),
+        event.getDirection(), event.getColor(), event.getPaint(), event.getResult());
+  }
+
+  // Records one action taken by a painter in a recorded world, in the same terms as
+  // EventLog.log. Painters on any number of threads may record at once.
+  public synchronized void record(int painterId, PainterEvent.Kind kind, int x, int y,
+      Direction direction, int color, int paint, boolean result) {
+    switch (kind) {
+      case CREATE, TURN, MOVE, PAINT, SCRAPE, HIDE, SHOW, PAINT_LINE, PAINT_RECT, FILL -> {
+        // these change the world or a painter
+      }
+      case TAKE_PAINT -> {
+        if (!result) {
+          return;
+        }
+      }
+      default -> {
+        // questions do not change anything
+        return;
+      }
+    }
+    Integer painter = this.painters.get(painterId);
+    if (painter == null) {
+      painter = this.painters.size();
+      this.painters.put(painterId, painter);
+    }
+    this.trace.append(painter, kind, x, y, direction, color, paint);
+  }
+
+  // Waits for actions already logged to be recorded, stops recording and returns the trace
+  public Trace stop() {
+    if (this.log != null) {
+      this.log.flush();
+      this.log.removeSink(this);
+    } else {
+      this.world.clearRecorder(this);
+    }
+    synchronized (this) {
+      return this.trace;
+    }
+  }
+}
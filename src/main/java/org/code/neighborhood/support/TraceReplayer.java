@@ -0,0 +1,193 @@
+package org.code.neighborhood.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Plays a Trace back onto a copy of the grid it was recorded against, as fast as the steps can
+// be applied. A snapshot of the grid and painters is kept every snapshotInterval steps as
+// playback passes it, so seeking to any step replays at most snapshotInterval steps.
+public class TraceReplayer {
+  public static final int DEFAULT_SNAPSHOT_INTERVAL = 256;
+
+  private final Trace trace;
+  private final int snapshotInterval;
+  // snapshots.get(i) holds the state after i * snapshotInterval steps
+  private final List<Snapshot> snapshots = new ArrayList<>();
+
+  private Grid grid;
+  private int step;
+  private int[] painterXs;
+  private int[] painterYs;
+  private int[] painterDirections;
+  private int[] painterPaint;
+  private boolean[] painterVisible;
+
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private static class Snapshot {
+    private final Grid grid;
+    private final int[] painterXs;
+    private final int[] painterYs;
+    private final int[] painterDirections;
+    private final int[] painterPaint;
+    private final boolean[] painterVisible;
+
+    private Snapshot(TraceReplayer replayer) {
+      this.grid = replayer.grid.copy();
+      this.painterXs = replayer.painterXs.clone();
+      this.painterYs = replayer.painterYs.clone();
+      this.painterDirections = replayer.painterDirections.clone();
+      this.painterPaint = replayer.painterPaint.clone();
+      this.painterVisible = replayer.painterVisible.clone();
+    }
+  }
+
+  // Replays the trace onto a copy of the grid; the grid passed in is not changed
+  public TraceReplayer(Grid grid, Trace trace) {
+    this(grid, trace, DEFAULT_SNAPSHOT_INTERVAL);
+  }
+
+  public TraceReplayer(Grid grid, Trace trace, int snapshotInterval) {
+    if (snapshotInterval <= 0) {
+      throw new IllegalArgumentException("Snapshot interval must be positive: " + snapshotInterval);
+    }
+    this.trace = trace;
+    this.snapshotInterval = snapshotInterval;
+    this.grid = grid.copy();
+    int painterCount = trace.getPainterCount();
+    this.painterXs = new int[painterCount];
+    this.painterYs = new int[painterCount];
+    this.painterDirections = new int[painterCount];
+    this.painterPaint = new int[painterCount];
+    this.painterVisible = new boolean[painterCount];
+    this.snapshots.add(new Snapshot(this));
+  }
+
+  // The grid as of the current step. It is replaced when seeking backwards.
+  public Grid getGrid() {
+    return this.grid;
+  }
+
+  // Returns the number of steps applied so far
+  public int getStep() {
+    return this.step;
+  }
+
+  public int size() {
+    return this.trace.size();
+  }
+
+  // Applies the next step. Returns false at the end of the trace.
+  public boolean stepForward() {
+    if (this.step == this.trace.size()) {
+      return false;
+    }
+    this.apply(this.step);
+    this.step++;
+    if (this.step % this.snapshotInterval == 0
+        && this.snapshots.size() == this.step / this.snapshotInterval) {
+      this.snapshots.add(new Snapshot(this));
+    }
+    return true;
+  }
+
+  public void runToEnd() {
+    while (this.stepForward()) {
+      // keep going
+    }
+  }
+
+  // Moves to the state after the given number of steps, restoring the nearest snapshot first
+  // when that is quicker than playing forward from here
+  public void seek(int target) {
+    target = Math.max(0, Math.min(target, this.trace.size()));
+    int snapshotIndex = Math.min(target / this.snapshotInterval, this.snapshots.size() - 1);
+    int snapshotStep = snapshotIndex * this.snapshotInterval;
+    if (target < this.step || snapshotStep > this.step) {
+      this.restore(this.snapshots.get(snapshotIndex));
+      this.step = snapshotStep;
+    }
+    while (this.step < target) {
+      this.stepForward();
+    }
+  }
+
+  private void restore(Snapshot snapshot) {
+    this.grid = snapshot.grid.copy();
+    this.painterXs = snapshot.painterXs.clone();
+    this.painterYs = snapshot.painterYs.clone();
+    this.painterDirections = snapshot.painterDirections.clone();
+    this.painterPaint = snapshot.painterPaint.clone();
+    this.painterVisible = snapshot.painterVisible.clone();
+    this.grid.getDirtySquares().markAll();
+  }
+
+  // Applies a step the way the painter applied the action when it was recorded
+  private void apply(int step) {
+    Trace trace = this.trace;
+    int painter = trace.painter(step);
+    int x = trace.x(step);
+    int y = trace.y(step);
+    switch (trace.kind(step)) {
+      case CREATE, SHOW -> this.painterVisible[painter] = true;
+      case HIDE -> this.painterVisible[painter] = false;
+      case PAINT -> this.grid.setColor(x, y, trace.color(step));
+      case SCRAPE -> {
+        if (this.grid.hasColor(x, y)) {
+          this.grid.restoreSquare(x, y, Grid.NO_COLOR, this.grid.paintCount(x, y),
+              this.grid.assetId(x, y));
+        }
+      }
+      case TAKE_PAINT -> this.grid.takePaint(x, y);
+      case PAINT_LINE, PAINT_RECT -> {
+        int fromX = this.painterXs[painter];
+        int fromY = this.painterYs[painter];
+        int[] rows = new int[(Math.abs(y - fromY) + 1) * 3];
+        for (int row = 0, rowY = Math.min(y, fromY); row < rows.length; row += 3, rowY++) {
+          rows[row] = rowY;
+          rows[row + 1] = Math.min(x, fromX);
+          rows[row + 2] = Math.max(x, fromX);
+        }
+        this.grid.paintSpans(rows, trace.color(step));
+      }
+      case FILL -> this.grid.paintSpans(this.grid.fillSpans(x, y), trace.color(step));
+      default -> {
+        // turns and moves only change the painter
+      }
+    }
+    if (this.painterXs[painter] != x || this.painterYs[painter] != y) {
+      this.grid.markDirty(this.painterXs[painter], this.painterYs[painter]);
+      this.grid.markDirty(x, y);
+    }
+    this.painterXs[painter] = x;
+    this.painterYs[painter] = y;
+    this.painterDirections[painter] = trace.direction(step).ordinal();
+    this.painterPaint[painter] = trace.paint(step);
+  }
+
+  public int getPainterCount() {
+    return this.painterXs.length;
+  }
+
+  // The state of a painter, numbered as in the trace, as of the current step
+
+  public boolean isPainterVisible(int painter) {
+    return this.painterVisible[painter];
+  }
+
+  public int getPainterX(int painter) {
+    return this.painterXs[painter];
+  }
+
+  public int getPainterY(int painter) {
+    return this.painterYs[painter];
+  }
+
+  public Direction getPainterDirection(int painter) {
+    return DIRECTIONS[this.painterDirections[painter]];
+  }
+
+  public int getPainterPaint(int painter) {
+    return this.painterPaint[painter];
+  }
+}
@@ -1,21 +1,37 @@
 package org.code.neighborhood.support;
 
+import java.awt.GraphicsEnvironment;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.concurrent.atomic.LongAdder;
 
 public class World{
+  private static final String HEADLESS_PROPERTY = "neighborhood.headless";
+  private static final String HEADLESS_ENV = "NEIGHBORHOOD_HEADLESS";
   private final Grid grid;
+  private boolean headless = defaultHeadless();
+  private boolean logging = true;
+  private final LongAdder actions = new LongAdder();
+  // Records the actions of this world's painters, or null
+  private volatile TraceRecorder recorder;
+  // Set once the world is stopped; every painter action after that throws
+  private volatile boolean stopped;
+
+  // The world painters created on this thread join instead of the shared world for their map
+  private static final ThreadLocal<World> current = new ThreadLocal<>();
 
   public World(int size) {
     GridFactory gridFactory = new GridFactory();
     this.grid = gridFactory.createEmptyGrid(size);
   }
 
+  protected World(Grid grid) {
+    this.grid = grid;
+  }
+
   public World(String filePath) {
     try {
-        String json = Files.readString(Paths.get(filePath));
-        this.grid = new GridFactory().createGridFromString(json);
+        this.grid = new GridFactory().createGridFromFile(Paths.get(filePath));
     } catch (IOException e) {
         throw new RuntimeException("Failed to load grid: " + e.getMessage());
     }
@@ -33,8 +49,7 @@ public class World{
   public World(String filePath, boolean isFilePath) {
     GridFactory gridFactory = new GridFactory();
     try {
-      String json = Files.readString(Paths.get(filePath));
-      this.grid = gridFactory.createGridFromString(json);
+      this.grid = gridFactory.createGridFromFile(Paths.get(filePath));
     } catch (IOException e) {
       throw new RuntimeException("Could not load grid");
     }
@@ -43,4 +58,103 @@ public class World{
   public Grid getGrid() {
     return this.grid;
   }
+
+  // A headless world never opens a window, and painters in it never sleep between actions
+  public boolean isHeadless() {
+    return this.headless;
+  }
+
+  public void setHeadless(boolean headless) {
+    this.headless = headless;
+  }
+
+  // Whether painters in this world write their actions to the EventLog
+  public boolean isLogging() {
+    return this.logging;
+  }
+
+  public void setLogging(boolean logging) {
+    this.logging = logging;
+  }
+
+  // The recorder started on this world with TraceRecorder.start(World), or null
+  public TraceRecorder getRecorder() {
+    return this.recorder;
+  }
+
+  synchronized void setRecorder(TraceRecorder recorder) {
+    this.recorder = recorder;
+  }
+
+  // Stops recording if the given recorder is still the one recording
+  synchronized void clearRecorder(TraceRecorder recorder) {
+    if (this.recorder == recorder) {
+      this.recorder = null;
+    }
+  }
+
+  // Makes every later painter action in this world throw WORLD_STOPPED, so that a program that
+  // will not finish on its own can be ended from another thread
+  public void stop() {
+    this.stopped = true;
+  }
+
+  public boolean isStopped() {
+    return this.stopped;
+  }
+
+  // Counts one painter action, including questions such as canMove. Throws WORLD_STOPPED once
+  // the world has been stopped.
+  public void countAction() {
+    if (this.stopped) {
+      throw new NeighborhoodRuntimeException(ExceptionKeys.WORLD_STOPPED);
+    }
+    this.actions.increment();
+  }
+
+  // Returns the number of painter actions taken in this world
+  public long getActionCount() {
+    return this.actions.sum();
+  }
+
+  // Returns the world bound to the calling thread, or null if painters on this thread use the
+  // shared world for their map
+  public static World getCurrent() {
+    return current.get();
+  }
+
+  // Binds a world to the calling thread so that painters created on it are placed there. Pass
+  // null to go back to the shared worlds.
+  public static void setCurrent(World world) {
+    if (world == null) {
+      current.remove();
+    } else {
+      current.set(world);
+    }
+  }
+
+  // Captures the state of the grid in constant time, so that it can be restored between runs
+  public GridSnapshot snapshot() {
+    return this.grid.snapshot();
+  }
+
+  // Puts the grid back the way it was when the snapshot was taken and resets the action count.
+  // Painters keep their own position and paint, so a run should create new painters.
+  public void restore(GridSnapshot snapshot) {
+    this.grid.restore(snapshot);
+    this.actions.reset();
+  }
+
+  // Headless mode is chosen with -Dneighborhood.headless=true or NEIGHBORHOOD_HEADLESS=true,
+  // and is always on when the JVM has no display to draw on
+  public static boolean defaultHeadless() {
+    String setting = System.getProperty(HEADLESS_PROPERTY);
+    if (setting == null) {
+      setting = System.getenv(HEADLESS_ENV);
+    }
+    if (setting != null) {
+      return Boolean.parseBoolean(setting.trim());
+    }
+    return GraphicsEnvironment.isHeadless();
+  }
 }
@@ -0,0 +1,114 @@
+package org.code.neighborhood.support;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+
+// Keeps one parsed World per map file so that every painter in a run shares the same grid.
+// Entries are keyed by the canonical path of the map and are reparsed only when the file's
+// modification time or size changes. The parsed template is held through a soft reference, so
+// the JVM can drop it when memory is tight and it is parsed again when next needed. The live
+// world is held strongly until reset: painters that come and go during a run must all find the
+// same painted world, even after every earlier painter has been collected.
+public final class WorldRegistry {
+  private static final Map<Path, Entry> entries = new HashMap<>();
+
+  private WorldRegistry() {}
+
+  private static class Entry {
+    private final Path path;
+    private final long lastModified;
+    private final long size;
+    private SoftReference<Grid> template;
+    private World current;
+
+    private Entry(Path path, long lastModified, long size, Grid template) {
+      this.path = path;
+      this.lastModified = lastModified;
+      this.size = size;
+      this.template = new SoftReference<>(template);
+    }
+
+    private boolean matches(BasicFileAttributes attributes) {
+      return this.lastModified == attributes.lastModifiedTime().toMillis()
+          && this.size == attributes.size();
+    }
+  }
+
+  // Returns the shared world for the map at filePath. The file is only parsed the first time
+  // it is requested, after it changes on disk, or after its cached grid has been collected.
+  public static synchronized World getWorld(String filePath) {
+    Entry entry = entry(filePath);
+    if (entry.current == null) {
+      entry.current = new World(template(entry).copy());
+    }
+    return entry.current;
+  }
+
+  // Returns a new, unpainted world for the map at filePath that no other caller shares. Every
+  // world made this way is a copy of the same cached parse, and the copy is made outside the
+  // registry lock so that many threads can create worlds at once.
+  public static World newWorld(String filePath) {
+    Grid template;
+    synchronized (WorldRegistry.class) {
+      template = template(entry(filePath));
+    }
+    return new World(template.copy());
+  }
+
+  private static Entry entry(String filePath) {
+    Path path;
+    BasicFileAttributes attributes;
+    try {
+      path = Paths.get(filePath).toRealPath();
+      attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to load grid: " + e.getMessage());
+    }
+
+    Entry entry = entries.get(path);
+    if (entry == null || !entry.matches(attributes)) {
+      entry = new Entry(path, attributes.lastModifiedTime().toMillis(), attributes.size(),
+          parse(path));
+      entries.put(path, entry);
+    }
+    return entry;
+  }
+
+  // Returns the parsed grid of an entry, parsing the file again if it was collected. Templates
+  // are never painted; worlds always get a copy.
+  private static Grid template(Entry entry) {
+    Grid template = entry.template.get();
+    if (template == null) {
+      template = parse(entry.path);
+      entry.template = new SoftReference<>(template);
+    }
+    return template;
+  }
+
+  // Starts a new run: the next getWorld call for each map returns a fresh, unpainted world
+  // copied from the cached parse instead of the world used by the previous run
+  public static synchronized void reset() {
+    for (Entry entry : entries.values()) {
+      entry.current = null;
+    }
+  }
+
+  // Forgets every cached map
+  public static synchronized void clear() {
+    entries.clear();
+  }
+
+  private static Grid parse(Path path) {
+    try {
+      return new GridFactory().createGridFromFile(path);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to load grid: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package org.code.neighborhood;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.code.neighborhood.support.ExceptionKeys;
+import org.code.neighborhood.support.NeighborhoodRuntimeException;
+import org.junit.jupiter.api.Test;
+
+public class BatchRunnerTest {
+  private static final String MAP = "src/main/resources/my-map.json";
+
+  // Paints the first three squares of the top row
+  private static void paintRow() {
+    Painter painter = new Painter(0, 0, "east", 3);
+    for (int i = 0; i < 3; i++) {
+      painter.paint("red");
+      painter.move();
+    }
+  }
+
+  // Walks off the east edge of the map
+  private static void walkOffTheMap() {
+    Painter painter = new Painter(0, 0, "east", 0);
+    while (true) {
+      painter.move();
+    }
+  }
+
+  // Turns on the spot forever
+  private static void spin() {
+    Painter painter = new Painter(0, 0, "east", 0);
+    while (true) {
+      painter.turnLeft();
+    }
+  }
+
+  // Waits forever without taking an action
+  private static void sleepForever() {
+    new Painter(0, 0, "east", 0);
+    try {
+      Thread.sleep(Long.MAX_VALUE);
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Test
+  void jobsRunInIsolatedWorlds() throws InterruptedException {
+    List<BatchJob> jobs = List.of(
+        new BatchJob("first", BatchRunnerTest::paintRow, MAP),
+        new BatchJob("second", BatchRunnerTest::paintRow, MAP));
+    try (BatchRunner runner = new BatchRunner()) {
+      BatchReport report = runner.run(jobs);
+      assertEquals(0, report.getFailureCount());
+      BatchResult first = report.getResults().get(0);
+      BatchResult second = report.getResults().get(1);
+      assertNotSame(first.getGrid(), second.getGrid());
+      // Painting a square twice would have needed more paint than the painter had
+      assertTrue(first.getGrid().getSquare(2, 0).hasColor());
+      assertTrue(second.getGrid().getSquare(2, 0).hasColor());
+      assertFalse(first.getGrid().getSquare(3, 0).hasColor());
+      assertEquals(7, first.getActionCount());
+    }
+  }
+
+  @Test
+  void failuresAreReportedPerJob() throws InterruptedException {
+    Map<String, PainterProgram> programs = new LinkedHashMap<>();
+    programs.put("row", BatchRunnerTest::paintRow);
+    programs.put("off the map", BatchRunnerTest::walkOffTheMap);
+    try (BatchRunner runner = new BatchRunner()) {
+      BatchReport report = runner.run(BatchRunner.jobs(programs, List.of(MAP, "missing.json")));
+      assertEquals(4, report.getResults().size());
+      assertEquals(3, report.getFailureCount());
+
+      BatchResult offTheMap = report.getResults().get(2);
+      assertTrue(offTheMap.getError() instanceof NeighborhoodRuntimeException);
+      assertEquals(ExceptionKeys.INVALID_MOVE.toString(), offTheMap.getError().getMessage());
+      assertEquals(10, offTheMap.getActionCount());
+
+      assertNull(report.getResults().get(1).getGrid());
+      assertTrue(report.getActionsPerSecond() > 0);
+    }
+  }
+
+  @Test
+  void jobsThatRunPastTheTimeoutAreStopped() throws InterruptedException {
+    List<BatchJob> jobs = List.of(
+        new BatchJob("spin", BatchRunnerTest::spin, MAP),
+        new BatchJob("sleep", BatchRunnerTest::sleepForever, MAP),
+        new BatchJob("row", BatchRunnerTest::paintRow, MAP));
+    try (BatchRunner runner = new BatchRunner()) {
+      runner.setJobTimeout(200, TimeUnit.MILLISECONDS);
+      BatchReport report = runner.run(jobs);
+      assertEquals(2, report.getFailureCount());
+      BatchResult spin = report.getResults().get(0);
+      assertTrue(spin.getError() instanceof TimeoutException);
+      assertEquals(ExceptionKeys.WORLD_STOPPED.toString(), spin.getError().getCause().getMessage());
+      assertTrue(spin.getActionCount() > 0);
+      assertTrue(report.getResults().get(1).getError() instanceof TimeoutException);
+      assertTrue(report.getResults().get(2).isSuccess());
+      assertFalse(Thread.currentThread().isInterrupted());
+    }
+  }
+}
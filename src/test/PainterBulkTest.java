@@ -0,0 +1,124 @@
+package org.code.neighborhood;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import org.code.neighborhood.support.ExceptionKeys;
+import org.code.neighborhood.support.Grid;
+import org.code.neighborhood.support.NeighborhoodRuntimeException;
+import org.code.neighborhood.support.World;
+import org.code.neighborhood.support.WorldRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PainterBulkTest {
+  private static final String MAP = "src/main/resources/my-map.json";
+  private World world;
+  private Grid grid;
+
+  @BeforeEach
+  public void setUp() {
+    world = WorldRegistry.newWorld(MAP);
+    world.setHeadless(true);
+    world.setLogging(false);
+    World.setCurrent(world);
+    grid = world.getGrid();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    World.setCurrent(null);
+  }
+
+  @Test
+  void moveNMovesAsOneAction() {
+    Painter painter = new Painter(0, 0, "east", 0);
+    long actions = world.getActionCount();
+    painter.moveN(4);
+    assertEquals(4, painter.getX());
+    assertEquals(actions + 1, world.getActionCount());
+  }
+
+  @Test
+  void moveNByZeroIsNotAnAction() {
+    Painter painter = new Painter(0, 0, "east", 0);
+    long actions = world.getActionCount();
+    painter.moveN(0);
+    assertEquals(0, painter.getX());
+    assertEquals(actions, world.getActionCount());
+    assertThrows(IllegalArgumentException.class, () -> painter.moveN(-1));
+  }
+
+  @Test
+  void moveNPastAWallDoesNotMove() {
+    Painter painter = new Painter(0, 0, "east", 0);
+    Exception exception =
+        assertThrows(
+            NeighborhoodRuntimeException.class,
+            () -> {
+              painter.moveN(10);
+            });
+    assertEquals(ExceptionKeys.INVALID_MOVE.toString(), exception.getMessage());
+    assertEquals(0, painter.getX());
+  }
+
+  @Test
+  void paintLineEndsOnTheLastSquare() {
+    Painter painter = new Painter(0, 0, "south", 5);
+    painter.paintLine(Color.RED, 3);
+    assertEquals(0, painter.getX());
+    assertEquals(2, painter.getY());
+    assertEquals(2, painter.getMyPaint());
+    for (int y = 0; y < 3; y++) {
+      assertEquals(Color.RED, grid.getSquare(0, y).getColor());
+    }
+    assertNull(grid.getSquare(0, 3).getColor());
+  }
+
+  @Test
+  void paintRectReachesToThePaintersRight() {
+    Painter painter = new Painter(2, 2, "north", 20);
+    painter.paintRect("blue", 2, 3);
+    // Facing north, the rectangle reaches up to y = 1 and right to x = 4
+    assertEquals(4, painter.getX());
+    assertEquals(1, painter.getY());
+    assertEquals(14, painter.getMyPaint());
+    for (int y = 1; y <= 2; y++) {
+      for (int x = 2; x <= 4; x++) {
+        assertEquals(Color.BLUE, grid.getSquare(x, y).getColor());
+      }
+    }
+    assertEquals(6, grid.getStats().getPaintedCount());
+  }
+
+  @Test
+  void paintingWithTooLittlePaintChangesNothing() {
+    Painter painter = new Painter(0, 0, "east", 2);
+    assertThrows(
+        IllegalStateException.class,
+        () -> {
+          painter.paintLine(Color.RED, 3);
+        });
+    assertEquals(0, painter.getX());
+    assertEquals(2, painter.getMyPaint());
+    assertEquals(0, grid.getStats().getPaintedCount());
+  }
+
+  @Test
+  void floodFillStopsAtOtherColors() {
+    Painter painter = new Painter(0, 5, "east", 200);
+    painter.paintLine(Color.RED, 10);
+    painter.turnLeft();
+    painter.move();
+    // The red row splits the map into 50 squares above and 40 below
+    assertEquals(50, painter.floodFill(Color.GREEN));
+    assertEquals(9, painter.getX());
+    assertEquals(4, painter.getY());
+    assertEquals(Color.GREEN, grid.getSquare(0, 0).getColor());
+    assertNull(grid.getSquare(0, 6).getColor());
+    assertEquals(10, grid.getStats().getPaintedCount(Color.RED));
+    assertEquals(50, grid.getStats().getPaintedCount(Color.GREEN));
+    assertEquals(200 - 10 - 50, painter.getMyPaint());
+  }
+}
@@ -0,0 +1,51 @@
+package org.code.neighborhood;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.code.neighborhood.support.ExceptionKeys;
+import org.code.neighborhood.support.NeighborhoodRuntimeException;
+import org.code.neighborhood.support.World;
+import org.code.neighborhood.support.WorldRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PainterNavigationTest {
+  private static final String MAP = "src/main/resources/my-map.json";
+  private World world;
+
+  @BeforeEach
+  public void setUp() {
+    world = WorldRegistry.newWorld(MAP);
+    world.setHeadless(true);
+    world.setLogging(false);
+    World.setCurrent(world);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    World.setCurrent(null);
+  }
+
+  @Test
+  void navigateToWalksToTheSquare() {
+    Painter painter = new Painter(0, 0, "east", 0);
+    painter.navigateTo(2, 3);
+    assertEquals(2, painter.getX());
+    assertEquals(3, painter.getY());
+    // 5 moves, plus the turns needed to face south after the first move east
+    assertTrue(world.getActionCount() >= 5);
+  }
+
+  @Test
+  void navigateToAWallThrowsException() {
+    Painter painter = new Painter(0, 0, "east", 0);
+    Exception exception =
+        assertThrows(
+            NeighborhoodRuntimeException.class,
+            () -> {
+              painter.navigateTo(-1, 0);
+            });
+    assertEquals(ExceptionKeys.INVALID_LOCATION.toString(), exception.getMessage());
+  }
+}
@@ -0,0 +1,94 @@
+package org.code.neighborhood.gui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import org.code.neighborhood.support.Direction;
+import org.code.neighborhood.support.Grid;
+import org.code.neighborhood.support.PainterEvent;
+import org.code.neighborhood.support.Trace;
+import org.code.neighborhood.support.TraceFixtures;
+import org.code.neighborhood.support.World;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AnimationExporterTest {
+  private static final int TILE = 8;
+  private static final int RED = Color.RED.getRGB();
+
+  // Records one painter walking east along the top row, painting every square it enters, then
+  // turning south and being shown again, which changes nothing
+  private Trace recordWalk(int squares) {
+    return TraceFixtures.record(log -> {
+      TraceFixtures.logWalk(log, squares, RED);
+      log.log(7, PainterEvent.Kind.TURN, squares, 0, Direction.SOUTH, 0, 0, false);
+      log.log(7, PainterEvent.Kind.SHOW, squares, 0, Direction.SOUTH, 0, 0, false);
+    });
+  }
+
+  @Test
+  void rawFramesShowEveryStep() throws Exception {
+    Grid grid = new World(10).getGrid();
+    AnimationExporter exporter = new AnimationExporter(grid, recordWalk(3), TILE);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(10, exporter.getFrameCount());
+    assertEquals(10, exporter.writeRaw(out));
+    int frameBytes = 10 * TILE * 10 * TILE * 3;
+    byte[] frames = out.toByteArray();
+    assertEquals(10 * frameBytes, frames.length);
+
+    // Square 1 is painted in frame 3 and the painter leaves it in frame 4
+    int squareOne = (3 * 10 * TILE + TILE + 3) * 3;
+    assertEquals(RED, rgb(frames, 9 * frameBytes + squareOne));
+    assertEquals(RED, rgb(frames, 4 * frameBytes + squareOne));
+    assertNotEquals(RED, rgb(frames, frameBytes + squareOne));
+    assertFalse(grid.getSquare(1, 0).hasColor());
+  }
+
+  @Test
+  void gifFramesHoldOnlyWhatChanged(@TempDir Path dir) throws Exception {
+    Grid grid = new World(10).getGrid();
+    AnimationExporter exporter = new AnimationExporter(grid, recordWalk(3), TILE);
+    exporter.setStepsPerFrame(2);
+    Path file = dir.resolve("walk.gif");
+    // The last frame only shows a painter that was already shown, so it adds no image
+    assertEquals(6, exporter.getFrameCount());
+    assertEquals(5, exporter.writeGif(file));
+
+    try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+      ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+      reader.setInput(in);
+      assertEquals(5, reader.getNumImages(true));
+      assertEquals(10 * TILE, reader.getWidth(0));
+      assertEquals(10 * TILE, reader.getHeight(0));
+      // Moving one square and painting it touches two squares of the top row
+      assertEquals(2 * TILE, reader.getWidth(1));
+      assertEquals(TILE, reader.getHeight(1));
+      // Painting square 1 and moving to square 2 is drawn one square in
+      IIOMetadataNode root =
+          (IIOMetadataNode) reader.getImageMetadata(2).getAsTree("javax_imageio_gif_image_1.0");
+      IIOMetadataNode descriptor =
+          (IIOMetadataNode) root.getElementsByTagName("ImageDescriptor").item(0);
+      assertEquals(Integer.toString(TILE), descriptor.getAttribute("imageLeftPosition"));
+      reader.dispose();
+    }
+  }
+
+  @Test
+  void stepsPerFrameMustBePositive() {
+    AnimationExporter exporter =
+        new AnimationExporter(new World(3).getGrid(), recordWalk(1));
+    assertThrows(IllegalArgumentException.class, () -> exporter.setStepsPerFrame(0));
+  }
+
+  private static int rgb(byte[] frames, int at) {
+    return 0xFF000000 | (frames[at] & 0xFF) << 16 | (frames[at + 1] & 0xFF) << 8
+        | (frames[at + 2] & 0xFF);
+  }
+}
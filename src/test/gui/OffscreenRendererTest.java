@@ -0,0 +1,75 @@
+package org.code.neighborhood.gui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+import org.code.neighborhood.Painter;
+import org.code.neighborhood.support.World;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OffscreenRendererTest {
+  private static final int TILE = 8;
+  private World world;
+
+  // A 40 x 40 world, so that it is drawn in three bands, with a red stripe down column 2
+  @BeforeEach
+  public void setUp() {
+    world = new World(40);
+    world.setHeadless(true);
+    world.setLogging(false);
+    World.setCurrent(world);
+    new Painter(2, 0, "south", 40).paintLine(Color.RED, 40);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    World.setCurrent(null);
+  }
+
+  @Test
+  void paintIsDrawnOnItsSquares() {
+    try (OffscreenRenderer renderer = new OffscreenRenderer(TILE, 2, 1)) {
+      BufferedImage image = renderer.render(world);
+      assertEquals(40 * TILE, image.getWidth());
+      assertEquals(40 * TILE, image.getHeight());
+      assertEquals(Color.RED.getRGB(), image.getRGB(2 * TILE + 3, 39 * TILE + 3));
+      assertNotEquals(Color.RED.getRGB(), image.getRGB(3 * TILE + 3, 39 * TILE + 3));
+    }
+  }
+
+  @Test
+  void parallelBandsMatchOneThread() {
+    Painter painter = new Painter(5, 20, "south", 0);
+    BufferedImage serial;
+    BufferedImage parallel;
+    try (OffscreenRenderer renderer = new OffscreenRenderer(TILE, 1, 1)) {
+      serial = renderer.render(world, painter);
+    }
+    try (OffscreenRenderer renderer = new OffscreenRenderer(TILE, 4, 1)) {
+      parallel = renderer.render(world, painter);
+    }
+    for (int y = 0; y < serial.getHeight(); y++) {
+      for (int x = 0; x < serial.getWidth(); x++) {
+        assertEquals(serial.getRGB(x, y), parallel.getRGB(x, y), "pixel " + x + ", " + y);
+      }
+    }
+  }
+
+  @Test
+  void writePngWritesTheRenderedImage(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("grid.png");
+    try (OffscreenRenderer renderer = new OffscreenRenderer(TILE, 2, 1)) {
+      assertEquals(file, renderer.writePng(world, file).get());
+    }
+    assertTrue(Files.size(file) > 0);
+    BufferedImage image = ImageIO.read(file.toFile());
+    assertEquals(Color.RED.getRGB(), image.getRGB(2 * TILE + 3, 3));
+  }
+}
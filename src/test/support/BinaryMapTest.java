@@ -0,0 +1,137 @@
+package org.code.neighborhood.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.code.neighborhood.Painter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BinaryMapTest {
+  String sampleGrid =
+      "[[\n{\"tileType\": 1, \"assetId\": 0}, {\"tileType\": 0, \"assetId\": 3}], \n[{\"tileType\": 4, \"assetId\": 0}, {\"tileType\": 1, \"value\": 4, \"assetId\": 2}]]";
+  Path jsonFile;
+  Path binaryFile;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    jsonFile = Files.createTempFile("map", ".json");
+    binaryFile = Files.createTempFile("map", BinaryMap.EXTENSION);
+    Files.writeString(jsonFile, sampleGrid);
+    BinaryMap.compile(jsonFile, binaryFile);
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(jsonFile);
+    Files.deleteIfExists(binaryFile);
+  }
+
+  @Test
+  void compiledMapMatchesJsonMap() throws IOException {
+    Grid json = new GridFactory().createGridFromFile(jsonFile);
+    Grid binary = new GridFactory().createGridFromFile(binaryFile);
+    assertEquals(json.getWidth(), binary.getWidth());
+    assertEquals(json.getHeight(), binary.getHeight());
+    for (int y = 0; y < 2; y++) {
+      for (int x = 0; x < 2; x++) {
+        assertEquals(json.validLocation(x, y), binary.validLocation(x, y));
+        assertEquals(json.getSquare(x, y).getAssetID(), binary.getSquare(x, y).getAssetID());
+        assertEquals(json.getSquare(x, y).containsPaint(), binary.getSquare(x, y).containsPaint());
+      }
+    }
+  }
+
+  @Test
+  void paintingMappedGridDoesNotChangeFile() throws IOException {
+    byte[] original = Files.readAllBytes(binaryFile);
+    Grid grid = new GridFactory().createGridFromFile(binaryFile);
+    grid.getSquare(0, 0).setColor(Color.RED);
+    grid.getSquare(1, 1).collectPaint();
+    assertEquals(Color.RED, grid.getSquare(0, 0).getColor());
+    assertArrayEquals(original, Files.readAllBytes(binaryFile));
+  }
+
+  @Test
+  void copyOfPaintedGridKeepsPaint() throws IOException {
+    Grid grid = new GridFactory().createGridFromFile(binaryFile);
+    grid.getSquare(0, 0).setColor(Color.RED);
+    Grid copy = grid.copy();
+    grid.getSquare(0, 0).removePaint();
+    assertEquals(Color.RED, copy.getSquare(0, 0).getColor());
+  }
+
+  @Test
+  void copiesKeepTheLoadedMapAfterItIsCompiledAgain() throws IOException {
+    Grid grid = new GridFactory().createGridFromFile(binaryFile);
+    BinaryMap.write(new GridFactory().createEmptyGrid(3), binaryFile);
+    Grid copy = grid.copy();
+    assertEquals(2, copy.getWidth());
+    assertFalse(copy.validLocation(1, 0));
+    assertEquals(2, copy.getSquare(1, 1).getAssetID());
+    assertEquals(3, new GridFactory().createGridFromFile(binaryFile).getWidth());
+  }
+
+  @Test
+  void paintingACopyOfALargeMapCopiesOnlyThePagesItWrites() throws IOException {
+    BinaryMap.write(new GridFactory().createEmptyGrid(512), binaryFile);
+    BufferGridStorage template = BinaryMap.mapStorage(binaryFile);
+    BufferGridStorage first = (BufferGridStorage) template.copy();
+    BufferGridStorage second = (BufferGridStorage) template.copy();
+    first.setColor(3, 4, Color.RED.getRGB());
+    first.setColor(5, 4, Color.BLUE.getRGB());
+    assertEquals(1, first.privatePageCount());
+    assertEquals(0, second.privatePageCount());
+    assertEquals(Color.RED.getRGB(), first.color(3, 4));
+    assertEquals(Grid.NO_COLOR, second.color(3, 4));
+    assertEquals(Grid.NO_COLOR, template.color(3, 4));
+
+    // A copy of a painted storage shares its pages until either writes again
+    BufferGridStorage third = (BufferGridStorage) first.copy();
+    first.setColor(3, 4, Grid.NO_COLOR);
+    assertEquals(Color.RED.getRGB(), third.color(3, 4));
+    assertEquals(Color.BLUE.getRGB(), third.color(5, 4));
+    assertEquals(0, third.privatePageCount());
+  }
+
+  @Test
+  void truncatedFileThrowsException() throws IOException {
+    Files.write(binaryFile, new byte[] {'N', 'B', 'M', 'P', 1, 0, 0, 0});
+    Exception exception =
+        assertThrows(
+            NeighborhoodRuntimeException.class,
+            () -> {
+              new GridFactory().createGridFromFile(binaryFile);
+            });
+    assertEquals(exception.getMessage(), ExceptionKeys.INVALID_GRID.toString());
+  }
+
+  @Test
+  void paintersCanStandAnywhereOnWideMaps() throws IOException {
+    Grid wide = new Grid(3, 1);
+    for (int x = 0; x < 3; x++) {
+      wide.initSquare(x, 0, 1, 0, 0);
+    }
+    BinaryMap.write(wide, binaryFile);
+    World world = new World(binaryFile.toString());
+    world.setHeadless(true);
+    world.setLogging(false);
+    World.setCurrent(world);
+    try {
+      assertEquals(2, new Painter(2, 0, "east", 0).getX());
+      Exception exception =
+          assertThrows(
+              NeighborhoodRuntimeException.class,
+              () -> {
+                new Painter(0, 1, "east", 0);
+              });
+      assertEquals(exception.getMessage(), ExceptionKeys.INVALID_LOCATION.toString());
+    } finally {
+      World.setCurrent(null);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package org.code.neighborhood.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import org.junit.jupiter.api.Test;
+
+public class ChunkedGridStorageTest {
+
+  @Test
+  void emptyWorldAllocatesNoChunks() {
+    ChunkedGridStorage storage = new ChunkedGridStorage(4096, 4096);
+    Grid grid = new Grid(4096, 4096, storage);
+    assertTrue(grid.validLocation(4095, 4095));
+    assertFalse(grid.getSquare(100, 100).hasColor());
+    assertEquals(0, storage.allocatedChunks());
+  }
+
+  @Test
+  void writingAllocatesOnlyThatChunk() {
+    ChunkedGridStorage storage = new ChunkedGridStorage(1000, 1000);
+    Grid grid = new Grid(1000, 1000, storage);
+    grid.getSquare(999, 999).setColor(Color.RED);
+    assertEquals(1, storage.allocatedChunks());
+    assertEquals(Color.RED, grid.getSquare(999, 999).getColor());
+    assertFalse(grid.getSquare(998, 999).hasColor());
+  }
+
+  @Test
+  void initSquareKeepsOpenSquaresShared() {
+    ChunkedGridStorage storage = new ChunkedGridStorage(128, 128);
+    Grid grid = new Grid(128, 128, storage);
+    grid.initSquare(3, 3, 1, 0, 0);
+    assertEquals(0, storage.allocatedChunks());
+    grid.initSquare(70, 3, 0, 0, 0);
+    assertEquals(1, storage.allocatedChunks());
+    assertFalse(grid.validLocation(70, 3));
+  }
+
+  @Test
+  void copiesDoNotSeeEachOthersPaint() {
+    Grid grid = new Grid(128, 128, new ChunkedGridStorage(128, 128));
+    grid.getSquare(5, 5).setColor(Color.BLUE);
+    Grid copy = grid.copy();
+    copy.getSquare(5, 5).removePaint();
+    grid.getSquare(6, 5).setColor(Color.RED);
+    assertEquals(Color.BLUE, grid.getSquare(5, 5).getColor());
+    assertFalse(copy.getSquare(5, 5).hasColor());
+    assertFalse(copy.getSquare(6, 5).hasColor());
+  }
+
+  @Test
+  void largeMapsUseChunkedStorage() {
+    Grid grid = new GridFactory().createEmptyGrid(2048);
+    assertTrue(grid.storage() instanceof ChunkedGridStorage);
+  }
+}
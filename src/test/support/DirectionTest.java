@@ -36,4 +36,22 @@ public class DirectionTest {
     dir = dir.turnLeft();
     assertTrue(dir.isNorth());
   }
+
+  @Test
+  void turningWalksTheCompass() {
+    assertEquals(Direction.EAST, Direction.NORTH.right());
+    assertEquals(Direction.SOUTH, Direction.NORTH.opposite());
+    assertEquals(Direction.NORTH, Direction.WEST.right());
+    assertEquals(Direction.SOUTH, Direction.WEST.left());
+    assertEquals(Direction.EAST, Direction.WEST.opposite());
+  }
+
+  @Test
+  void stepsMoveOneSquare() {
+    assertEquals(-1, Direction.NORTH.getDy());
+    assertEquals(0, Direction.NORTH.getDx());
+    assertEquals(1, Direction.EAST.getDx());
+    assertEquals(1, Direction.SOUTH.getDy());
+    assertEquals(-1, Direction.WEST.getDx());
+  }
 }
@@ -0,0 +1,50 @@
+package org.code.neighborhood.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import org.junit.jupiter.api.Test;
+
+public class DirtySquaresTest {
+  int[] xs = new int[DirtySquares.CAPACITY];
+  int[] ys = new int[DirtySquares.CAPACITY];
+
+  @Test
+  void nothingIsRecordedUntilTracking() {
+    DirtySquares dirty = new DirtySquares();
+    dirty.mark(1, 1);
+    assertEquals(0, dirty.drain(xs, ys));
+  }
+
+  @Test
+  void firstDrainAfterTrackingRedrawsEverything() {
+    DirtySquares dirty = new DirtySquares();
+    dirty.startTracking();
+    assertEquals(-1, dirty.drain(xs, ys));
+    assertEquals(0, dirty.drain(xs, ys));
+  }
+
+  @Test
+  void gridChangesMarkSquares() {
+    Grid grid = new GridFactory().createEmptyGrid(3);
+    grid.getDirtySquares().startTracking();
+    grid.getDirtySquares().drain(xs, ys);
+    grid.getSquare(2, 1).setColor(Color.RED);
+    grid.markDirty(0, 0);
+    assertEquals(2, grid.getDirtySquares().drain(xs, ys));
+    assertEquals(2, xs[0]);
+    assertEquals(1, ys[0]);
+    assertEquals(0, xs[1]);
+  }
+
+  @Test
+  void tooManySquaresRedrawsEverything() {
+    DirtySquares dirty = new DirtySquares();
+    dirty.startTracking();
+    dirty.drain(xs, ys);
+    for (int i = 0; i <= DirtySquares.CAPACITY; i++) {
+      dirty.mark(i, 0);
+    }
+    assertEquals(-1, dirty.drain(xs, ys));
+  }
+}
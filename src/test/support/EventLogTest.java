@@ -0,0 +1,92 @@
+package org.code.neighborhood.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class EventLogTest {
+
+  @Test
+  void eventsReachSinksInOrder() {
+    EventLog log = new EventLog();
+    MemoryEventSink sink = new MemoryEventSink();
+    log.addSink(sink);
+    log.log(3, PainterEvent.Kind.MOVE, 1, 2, Direction.SOUTH, 0, 4, false);
+    log.log(3, PainterEvent.Kind.PAINT, 1, 2, Direction.SOUTH, Color.RED.getRGB(), 3, false);
+    log.flush();
+
+    List<PainterEvent> events = sink.getEvents();
+    assertEquals(2, events.size());
+    assertEquals(3, events.get(0).getPainterId());
+    assertEquals(PainterEvent.Kind.MOVE, events.get(0).getKind());
+    assertEquals(2, events.get(0).getY());
+    assertEquals(Direction.SOUTH, events.get(0).getDirection());
+    assertEquals(Color.RED.getRGB(), events.get(1).getColor());
+    assertEquals(3, events.get(1).getPaint());
+  }
+
+  @Test
+  void disabledLogDropsEvents() {
+    EventLog log = new EventLog();
+    MemoryEventSink sink = new MemoryEventSink();
+    log.addSink(sink);
+    log.setEnabled(false);
+    log.log(0, PainterEvent.Kind.TURN, 0, 0, Direction.NORTH, 0, 0, false);
+    log.flush();
+    assertTrue(sink.getEvents().isEmpty());
+  }
+
+  @Test
+  void producerWaitsWhenRingIsFull() {
+    EventLog log = new EventLog();
+    MemoryEventSink sink = new MemoryEventSink();
+    log.addSink(sink);
+    int count = EventLog.CAPACITY * 3;
+    for (int i = 0; i < count; i++) {
+      log.log(0, PainterEvent.Kind.MOVE, i, 0, Direction.EAST, 0, 0, false);
+    }
+    log.flush();
+    List<PainterEvent> events = sink.getEvents();
+    assertEquals(count, events.size());
+    assertEquals(count - 1, events.get(count - 1).getX());
+  }
+
+  @Test
+  void consoleSinkPrintsPainterMessages() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    EventLog log = new EventLog();
+    log.addSink(new ConsoleEventSink(new PrintStream(bytes, true)));
+    log.log(0, PainterEvent.Kind.TURN, 0, 0, Direction.WEST, 0, 0, false);
+    log.log(0, PainterEvent.Kind.PAINT, 0, 0, Direction.WEST, Color.RED.getRGB(), 0, false);
+    log.log(0, PainterEvent.Kind.CAN_MOVE_LEFT, 0, 0, Direction.WEST, 0, 0, true);
+    log.flush();
+
+    String[] lines = bytes.toString().split(System.lineSeparator());
+    assertEquals("Action: TURN, direction = west", lines[0]);
+    assertEquals("Painted with color: " + Color.RED, lines[1]);
+    assertEquals("Action: CAN MOVE left: true", lines[2]);
+  }
+
+  @Test
+  void consoleSinkPrintsToTheCurrentOutWhenFlushed() {
+    PrintStream standardOut = System.out;
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    EventLog log = new EventLog();
+    log.addSink(new ConsoleEventSink());
+    try {
+      System.setOut(new PrintStream(bytes, true));
+      log.log(0, PainterEvent.Kind.MOVE, 1, 0, Direction.EAST, 0, 0, false);
+      log.flush();
+      System.out.println("after the move");
+    } finally {
+      System.setOut(standardOut);
+    }
+    String[] lines = bytes.toString().split(System.lineSeparator());
+    assertEquals("Action: MOVE, direction = east", lines[0]);
+    assertEquals("after the move", lines[1]);
+  }
+}
@@ -0,0 +1,117 @@
+package org.code.neighborhood.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class GridConcurrencyTest {
+  private static final int TASKS = 16;
+
+  private static List<Integer> runAll(Callable<Integer> task) throws Exception {
+    ExecutorService executor = PainterThreads.newExecutor();
+    try {
+      List<Callable<Integer>> tasks = new ArrayList<>();
+      for (int i = 0; i < TASKS; i++) {
+        tasks.add(task);
+      }
+      List<Integer> results = new ArrayList<>();
+      for (Future<Integer> future : executor.invokeAll(tasks)) {
+        results.add(future.get());
+      }
+      return results;
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  void bucketsAreNeverCountedTwice() throws Exception {
+    int size = 32;
+    Grid grid = new Grid(size, size);
+    int totalPaint = 0;
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        int paint = (x + y) % 4 == 0 ? 50 : 0;
+        grid.initSquare(x, y, 1, paint > 0 ? 3 : 0, paint);
+        totalPaint += paint;
+      }
+    }
+
+    // Every task sweeps the grid taking paint until there is none left anywhere
+    List<Integer> taken = runAll(() -> {
+      int count = 0;
+      boolean tookAny = true;
+      while (tookAny) {
+        tookAny = false;
+        for (int y = 0; y < size; y++) {
+          for (int x = 0; x < size; x++) {
+            if (grid.takePaint(x, y)) {
+              count++;
+              tookAny = true;
+            }
+          }
+        }
+      }
+      return count;
+    });
+
+    assertEquals(totalPaint, taken.stream().mapToInt(Integer::intValue).sum());
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        assertEquals(0, grid.paintCount(x, y));
+        assertEquals(0, grid.assetId(x, y));
+      }
+    }
+  }
+
+  @Test
+  void writesToOneChunkFromManyThreadsAreAllKept() throws Exception {
+    // Large enough for chunked storage; every task writes its own squares of the same chunks,
+    // which are shared copy-on-write with the copy below
+    int size = 1100;
+    Grid original = new Grid(size, size);
+    assertTrue(original.storage() instanceof ChunkedGridStorage);
+    Grid grid = original.copy();
+    int[] next = {0};
+
+    runAll(() -> {
+      int task;
+      synchronized (next) {
+        task = next[0]++;
+      }
+      for (int y = 0; y < 128; y++) {
+        for (int x = task; x < 128; x += TASKS) {
+          grid.setAssetId(x, y, task + 1);
+        }
+      }
+      return 0;
+    });
+
+    for (int y = 0; y < 128; y++) {
+      for (int x = 0; x < 128; x++) {
+        assertEquals(x % TASKS + 1, grid.assetId(x, y));
+        assertEquals(0, original.assetId(x, y));
+      }
+    }
+  }
+
+  @Test
+  void gridsAndRegionsHaveTheirOwnLocks() {
+    Grid first = new Grid(8, 8);
+    Grid second = new Grid(8, 8);
+    assertNotSame(first.regionLock(first.regionLockIndex(0, 0)),
+        second.regionLock(second.regionLockIndex(0, 0)));
+    Grid large = new Grid(256, 256);
+    assertEquals(16, large.regionLockCount());
+    assertNotEquals(large.regionLockIndex(0, 0), large.regionLockIndex(64, 0));
+    assertNotEquals(large.regionLockIndex(0, 0), large.regionLockIndex(0, 64));
+    assertEquals(large.regionLockIndex(64, 0), large.regionLockIndex(127, 63));
+  }
+}
@@ -124,4 +124,42 @@ public class GridFactoryTest {
     String expectedMessage = ExceptionKeys.INVALID_GRID.toString();
     assertEquals(exception.getMessage(), expectedMessage);
   }
+
+  @Test
+  void createGridFromFileStreamsMap() throws IOException {
+    java.nio.file.Path file = java.nio.file.Files.createTempFile("grid", ".json");
+    try {
+      java.nio.file.Files.writeString(file, sampleGrid);
+      Grid grid = new GridFactory().createGridFromFile(file);
+      assertEquals(2, grid.getWidth());
+      assertTrue(grid.getSquare(1, 1).containsPaint());
+      assertFalse(grid.getSquare(0, 1).containsPaint());
+    } finally {
+      java.nio.file.Files.delete(file);
+    }
+  }
+
+  @Test
+  void createGridFromStringWithMissingTileTypeThrowsException() {
+    GridFactory gridFactory = new GridFactory();
+    Exception exception =
+        assertThrows(
+            NeighborhoodRuntimeException.class,
+            () -> {
+              gridFactory.createGridFromString("[[{\"assetId\": 0}]]");
+            });
+    assertEquals(exception.getMessage(), ExceptionKeys.INVALID_GRID.toString());
+  }
+
+  @Test
+  void createGridFromStringWithTrailingContentThrowsException() {
+    GridFactory gridFactory = new GridFactory();
+    Exception exception =
+        assertThrows(
+            NeighborhoodRuntimeException.class,
+            () -> {
+              gridFactory.createGridFromString("[[{\"tileType\": 1}]] [");
+            });
+    assertEquals(exception.getMessage(), ExceptionKeys.INVALID_GRID.toString());
+  }
 }
@@ -0,0 +1,119 @@
+package org.code.neighborhood.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class GridPatternTest {
+  // A 70 x 2 grid, so that rows straddle a 64 square word, with a bucket at (69, 1)
+  private Grid newGrid() {
+    Grid grid = new Grid(70, 2);
+    for (int y = 0; y < 2; y++) {
+      for (int x = 0; x < 70; x++) {
+        grid.initSquare(x, y, 1, 0, 0);
+      }
+    }
+    grid.initSquare(69, 1, 1, 2, 3);
+    return grid;
+  }
+
+  @Test
+  void identicalPaintingsMatch() {
+    Grid expected = newGrid();
+    Grid actual = newGrid();
+    expected.setColor(65, 0, Color.RED.getRGB());
+    actual.setColor(65, 0, Color.RED.getRGB());
+    GridPattern target = GridPattern.of(expected);
+    assertTrue(target.matches(actual));
+    GridDiff diff = target.diff(actual);
+    assertTrue(diff.isMatch());
+    assertEquals(0, diff.getMismatchCount());
+    assertEquals("match", diff.toString());
+  }
+
+  @Test
+  void diffSortsMismatchesByKind() {
+    Grid expected = newGrid();
+    expected.setColor(0, 0, Color.RED.getRGB());
+    expected.setColor(1, 0, Color.RED.getRGB());
+    expected.setColor(66, 1, Color.BLUE.getRGB());
+    for (int i = 0; i < 3; i++) {
+      expected.takePaint(69, 1);
+    }
+    Grid actual = newGrid();
+    actual.setColor(1, 0, Color.GREEN.getRGB());
+    actual.setColor(66, 1, Color.BLUE.getRGB());
+    actual.setColor(67, 1, Color.BLUE.getRGB());
+
+    GridPattern target = GridPattern.of(expected);
+    assertFalse(target.matches(actual));
+    GridDiff diff = target.diff(actual);
+    assertTrue(diff.isMissing(0, 0));
+    assertTrue(diff.isWrongColor(1, 0));
+    assertTrue(diff.isExtra(67, 1));
+    assertTrue(diff.isRemainingBucket(69, 1));
+    assertFalse(diff.isMismatched(66, 1));
+    assertEquals(1, diff.getMissingCount());
+    assertEquals(1, diff.getExtraCount());
+    assertEquals(1, diff.getWrongColorCount());
+    assertEquals(1, diff.getRemainingBucketCount());
+    assertArrayEquals(new int[] {0, 1, 70 + 67, 70 + 69}, diff.getMismatchedSquares());
+  }
+
+  @Test
+  void bucketsTheTargetStillHoldsAreNotRemaining() {
+    Grid expected = newGrid();
+    Grid actual = newGrid();
+    actual.takePaint(69, 1);
+    assertTrue(GridPattern.of(expected).diff(actual).isMatch());
+    assertEquals(1, GridPattern.of(expected).getBucketCount());
+  }
+
+  @Test
+  void diffAllKeepsTheOrderOfTheGrids() {
+    Grid expected = newGrid();
+    expected.setColor(3, 1, Color.RED.getRGB());
+    GridPattern target = GridPattern.of(expected);
+    List<Grid> grids = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      Grid grid = newGrid();
+      grid.setColor(3, 1, (i % 2 == 0 ? Color.RED : Color.BLUE).getRGB());
+      grids.add(grid);
+    }
+    List<GridDiff> diffs = target.diffAll(grids);
+    for (int i = 0; i < 50; i++) {
+      assertEquals(i % 2 == 0, diffs.get(i).isMatch());
+    }
+  }
+
+  @Test
+  void patternsPaintedWithManyColorsCompareBySquare() {
+    Grid expected = newGrid();
+    Grid actual = newGrid();
+    for (int x = 0; x < 70; x++) {
+      expected.setColor(x, 0, 0xFF000000 | x);
+      actual.setColor(x, 0, 0xFF000000 | (x == 66 ? 1 : x));
+    }
+    GridPattern target = GridPattern.of(expected);
+    GridDiff diff = target.diff(GridPattern.of(actual));
+    assertEquals(1, diff.getWrongColorCount());
+    assertTrue(diff.isWrongColor(66, 0));
+    assertFalse(target.matches(GridPattern.of(actual)));
+    assertTrue(target.matches(GridPattern.of(expected)));
+  }
+
+  @Test
+  void comparingGridsOfDifferentSizesThrowsException() {
+    GridPattern target = GridPattern.of(newGrid());
+    Exception exception =
+        assertThrows(
+            NeighborhoodRuntimeException.class,
+            () -> {
+              target.diff(new GridFactory().createEmptyGrid(3));
+            });
+    assertEquals(exception.getMessage(), ExceptionKeys.INVALID_GRID.toString());
+  }
+}
@@ -0,0 +1,100 @@
+package org.code.neighborhood.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+public class GridSnapshotTest {
+  String sampleGrid =
+      "[[\n{\"tileType\": 1, \"assetId\": 0}, {\"tileType\": 0, \"assetId\": 3}], \n[{\"tileType\": 1, \"assetId\": 0}, {\"tileType\": 1, \"value\": 4, \"assetId\": 2}]]";
+
+  // Paints and takes paint, then checks that restoring undoes both, twice over
+  private void assertRestoreUndoesChanges(Grid grid) {
+    Color color = grid.getSquare(0, 0).getColor();
+    int paintCount = grid.paintCount(1, 1);
+    GridSnapshot snapshot = grid.snapshot();
+    for (int run = 0; run < 2; run++) {
+      grid.getSquare(0, 0).setColor(Color.RED);
+      grid.getSquare(1, 1).collectPaint();
+      assertEquals(Color.RED, grid.getSquare(0, 0).getColor());
+      grid.restore(snapshot);
+      assertEquals(color, grid.getSquare(0, 0).getColor());
+      assertEquals(paintCount, grid.paintCount(1, 1));
+    }
+  }
+
+  @Test
+  void restoreUndoesChangesToArrayStorage() {
+    Grid grid = new GridFactory().createGridFromString(sampleGrid);
+    assertTrue(grid.storage() instanceof ArrayGridStorage);
+    assertRestoreUndoesChanges(grid);
+  }
+
+  @Test
+  void restoreUndoesChangesToChunkedStorage() {
+    Grid grid = new Grid(2, 2, new ChunkedGridStorage(2, 2));
+    grid.initSquare(1, 1, 1, 2, 4);
+    assertRestoreUndoesChanges(grid);
+  }
+
+  @Test
+  void restoreUndoesChangesToMappedStorage() throws IOException {
+    Path jsonFile = Files.createTempFile("map", ".json");
+    Path binaryFile = Files.createTempFile("map", BinaryMap.EXTENSION);
+    try {
+      Files.writeString(jsonFile, sampleGrid);
+      BinaryMap.compile(jsonFile, binaryFile);
+      Grid grid = new GridFactory().createGridFromFile(binaryFile);
+      // Once for the untouched mapping and once for the buffer it was copied to
+      assertRestoreUndoesChanges(grid);
+      grid.getSquare(0, 0).setColor(Color.BLUE);
+      grid.getSquare(1, 1).collectPaint();
+      assertRestoreUndoesChanges(grid);
+      assertEquals(3, grid.paintCount(1, 1));
+      assertEquals(Color.BLUE, grid.snapshot().newGrid().getSquare(0, 0).getColor());
+    } finally {
+      Files.deleteIfExists(jsonFile);
+      Files.deleteIfExists(binaryFile);
+    }
+  }
+
+  @Test
+  void snapshotIsNotChangedByItsGridOrByGridsMadeFromIt() {
+    Grid grid = new GridFactory().createGridFromString(sampleGrid);
+    GridSnapshot snapshot = grid.snapshot();
+    grid.getSquare(0, 0).setColor(Color.RED);
+    Grid other = snapshot.newGrid();
+    assertFalse(other.getSquare(0, 0).hasColor());
+    other.getSquare(1, 0).setColor(Color.BLUE);
+    assertFalse(snapshot.newGrid().getSquare(1, 0).hasColor());
+    assertEquals(Color.RED, grid.getSquare(0, 0).getColor());
+  }
+
+  @Test
+  void restoringSnapshotOfAnotherSizeThrowsException() {
+    Grid grid = new GridFactory().createGridFromString(sampleGrid);
+    GridSnapshot snapshot = new GridFactory().createEmptyGrid(3).snapshot();
+    Exception exception =
+        assertThrows(
+            NeighborhoodRuntimeException.class,
+            () -> {
+              grid.restore(snapshot);
+            });
+    assertEquals(exception.getMessage(), ExceptionKeys.INVALID_GRID.toString());
+  }
+
+  @Test
+  void worldRestoreResetsActionCount() {
+    World world = new World(new GridFactory().createGridFromString(sampleGrid));
+    GridSnapshot snapshot = world.snapshot();
+    world.getGrid().getSquare(0, 0).setColor(Color.RED);
+    world.countAction();
+    world.restore(snapshot);
+    assertFalse(world.getGrid().getSquare(0, 0).hasColor());
+    assertEquals(0, world.getActionCount());
+  }
+}
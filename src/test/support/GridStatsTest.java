@@ -0,0 +1,109 @@
+package org.code.neighborhood.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class GridStatsTest {
+  // An open size x size grid with buckets at the given {x, y, paint} positions
+  private Grid newGrid(int size, int[]... buckets) {
+    Grid grid = new Grid(size, size);
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        grid.initSquare(x, y, 1, 0, 0);
+      }
+    }
+    for (int[] bucket : buckets) {
+      grid.initSquare(bucket[0], bucket[1], 1, 2, bucket[2]);
+    }
+    return grid;
+  }
+
+  @Test
+  void statsCountWhatIsOnTheGrid() {
+    Grid grid = newGrid(10, new int[] {1, 1, 3}, new int[] {5, 5, 2});
+    grid.setColor(0, 0, Color.RED.getRGB());
+    GridStats stats = grid.getStats();
+    assertEquals(1, stats.getPaintedCount());
+    assertEquals(1, stats.getPaintedCount(Color.RED));
+    assertEquals(2, stats.getBucketCount());
+    assertEquals(5, stats.getPaintRemaining());
+  }
+
+  @Test
+  void statsFollowChangesToSquares() {
+    Grid grid = newGrid(10, new int[] {1, 1, 1}, new int[] {5, 5, 2});
+    GridStats stats = grid.getStats();
+    grid.setColor(0, 0, Color.RED.getRGB());
+    grid.setColor(2, 0, Color.RED.getRGB());
+    grid.setColor(3, 0, Color.BLUE.getRGB());
+    grid.setColor(2, 0, Color.BLUE.getRGB());
+    grid.removePaint(0, 0);
+    grid.takePaint(1, 1);
+    grid.collectPaint(5, 5);
+    assertSame(stats, grid.getStats());
+    assertEquals(2, stats.getPaintedCount());
+    assertEquals(0, stats.getPaintedCount(Color.RED));
+    assertEquals(Map.of(Color.BLUE, 2), stats.getColorCounts());
+    assertEquals(1, stats.getBucketCount());
+    assertEquals(1, stats.getPaintRemaining());
+  }
+
+  @Test
+  void restoringSnapshotRebuildsStats() {
+    Grid grid = newGrid(10, new int[] {1, 1, 1});
+    GridSnapshot snapshot = grid.snapshot();
+    grid.takePaint(1, 1);
+    assertEquals(0, grid.getStats().getBucketCount());
+    grid.restore(snapshot);
+    assertEquals(1, grid.getStats().getBucketCount());
+    grid.restoreSquare(1, 1, Color.RED.getRGB(), 0, 0);
+    assertEquals(0, grid.getStats().getBucketCount());
+    assertEquals(1, grid.getStats().getPaintedCount(Color.RED));
+  }
+
+  @Test
+  void nearestBucketSearchesAcrossRegions() {
+    Grid grid = newGrid(200, new int[] {150, 10, 1}, new int[] {70, 70, 1}, new int[] {66, 3, 1});
+    GridStats stats = grid.getStats();
+    assertArrayEquals(new int[] {66, 3}, stats.nearestBucket(60, 0));
+    assertArrayEquals(new int[] {70, 70}, stats.nearestBucket(63, 63));
+    assertArrayEquals(new int[] {150, 10}, stats.nearestBucket(199, 0));
+    grid.takePaint(70, 70);
+    assertArrayEquals(new int[] {66, 3}, stats.nearestBucket(63, 63));
+  }
+
+  @Test
+  void statsStayExactWhileThreadsPaintDifferentRegions() throws InterruptedException {
+    Grid grid = newGrid(256);
+    GridStats stats = grid.getStats();
+    Color[] colors = {Color.RED, Color.BLUE, Color.GREEN, Color.ORANGE};
+    Thread[] threads = new Thread[8];
+    for (int t = 0; t < threads.length; t++) {
+      int firstY = t * 32;
+      threads[t] = new Thread(() -> {
+        for (int y = firstY; y < firstY + 32; y++) {
+          for (int x = 0; x < 256; x++) {
+            grid.setColor(x, y, colors[(x + y) % colors.length].getRGB());
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(256 * 256, stats.getPaintedCount());
+    for (Color color : colors) {
+      assertEquals(256 * 256 / colors.length, stats.getPaintedCount(color));
+    }
+    assertEquals(colors.length, stats.getColorCounts().size());
+  }
+
+  @Test
+  void nearestBucketIsNullWithoutBuckets() {
+    assertNull(newGrid(10).getStats().nearestBucket(0, 0));
+  }
+}
@@ -53,4 +53,58 @@ public class GridTest {
     String expectedMessage = ExceptionKeys.GET_SQUARE_FAILED.toString();
     assertEquals(exception.getMessage(), expectedMessage);
   }
+
+  @Test
+  void squaresAreViewsOfTheGrid() {
+    GridSquare[][] squares = new GridSquare[1][2];
+    squares[0][0] = new GridSquare(1, 0);
+    squares[0][1] = new GridSquare(1, 0, 2);
+    Grid grid = new Grid(squares);
+    grid.getSquare(0, 0).setColor(java.awt.Color.RED);
+    assertEquals(java.awt.Color.RED, grid.getSquare(0, 0).getColor());
+    grid.getSquare(1, 0).collectPaint();
+    assertTrue(squares[0][1].containsPaint());
+    squares[0][1].collectPaint();
+    assertFalse(grid.getSquare(1, 0).containsPaint());
+  }
+
+  @Test
+  void copyIsIndependentOfOriginal() {
+    GridSquare[][] squares = new GridSquare[1][1];
+    squares[0][0] = new GridSquare(1, 0);
+    Grid grid = new Grid(squares);
+    Grid copy = grid.copy();
+    copy.getSquare(0, 0).setColor(java.awt.Color.RED);
+    assertFalse(grid.getSquare(0, 0).hasColor());
+    assertTrue(copy.getSquare(0, 0).hasColor());
+  }
+
+  @Test
+  void fillSpansStopAtWallsBucketsAndOtherColors() {
+    // A 70 x 3 grid cut by a wall at x = 3 on the top two rows, with a bucket at (65, 2)
+    Grid grid = new Grid(70, 3);
+    for (int y = 0; y < 3; y++) {
+      for (int x = 0; x < 70; x++) {
+        grid.initSquare(x, y, x == 3 && y < 2 ? 0 : 1, 0, 0);
+      }
+    }
+    grid.initSquare(65, 2, 1, 2, 1);
+    grid.setColor(68, 0, java.awt.Color.RED.getRGB());
+    int[] spans = grid.fillSpans(0, 0);
+    assertEquals(70 * 3 - 2 - 1 - 1, Grid.spanSquares(spans));
+    grid.paintSpans(spans, java.awt.Color.BLUE.getRGB());
+    assertEquals(java.awt.Color.BLUE, grid.getSquare(69, 0).getColor());
+    assertEquals(java.awt.Color.RED, grid.getSquare(68, 0).getColor());
+    assertFalse(grid.getSquare(65, 2).hasColor());
+    assertEquals(0, grid.fillSpans(3, 0).length);
+  }
+
+  @Test
+  void fractionalNumbersInMapsAreTruncated() {
+    Grid grid = new GridFactory().createGridFromString(
+        "[[{\"tileType\": 1.0}, {\"tileType\": 1, \"assetId\": 2.7, \"value\": 3.5}],"
+        + " [{\"tileType\": 1}, {\"tileType\": 1}]]");
+    assertEquals(2, grid.getSquare(1, 0).getAssetID());
+    assertEquals(3, grid.paintCount(1, 0));
+  }
 }
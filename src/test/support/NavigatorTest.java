@@ -0,0 +1,100 @@
+package org.code.neighborhood.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class NavigatorTest {
+  // '#' is a wall, '.' open, 'b' a bucket with paint
+  private Grid maze(String... rows) {
+    Grid grid = new Grid(rows[0].length(), rows.length);
+    for (int y = 0; y < rows.length; y++) {
+      for (int x = 0; x < rows[y].length(); x++) {
+        char c = rows[y].charAt(x);
+        grid.initSquare(x, y, c == '#' ? 0 : 1, c == 'b' ? 2 : 0, c == 'b' ? 1 : 0);
+      }
+    }
+    return grid;
+  }
+
+  private int[] walk(int x, int y, Direction[] steps) {
+    for (Direction step : steps) {
+      x += step.getDx();
+      y += step.getDy();
+    }
+    return new int[] {x, y};
+  }
+
+  private final Grid grid = maze(
+      "....#.#.",
+      ".##.#.#.",
+      ".#..#.#.",
+      ".#.##.#.",
+      "...b..#.",
+      "#######.");
+
+  @Test
+  void pathGoesAroundWalls() {
+    Navigator navigator = grid.getNavigator();
+    Direction[] steps = navigator.path(0, 0, 5, 0);
+    assertNotNull(steps);
+    assertEquals(13, steps.length);
+    assertArrayEquals(new int[] {5, 0}, walk(0, 0, steps));
+    assertArrayEquals(new Direction[0], navigator.path(3, 4, 3, 4));
+  }
+
+  @Test
+  void distanceFieldAgreesWithAStar() {
+    Navigator navigator = grid.getNavigator();
+    for (int y = 0; y < 6; y++) {
+      for (int x = 0; x < 8; x++) {
+        Direction[] steps = navigator.path(x, y, 5, 0);
+        int distance = navigator.distancesTo(5, 0).getDistance(x, y);
+        assertEquals(steps == null ? -1 : steps.length, distance);
+      }
+    }
+    // Now read off the cached field
+    Direction[] steps = navigator.path(0, 0, 5, 0);
+    assertEquals(13, steps.length);
+    assertArrayEquals(new int[] {5, 0}, walk(0, 0, steps));
+  }
+
+  @Test
+  void squaresBehindWallsAreUnreachable() {
+    Navigator navigator = grid.getNavigator();
+    assertFalse(navigator.isReachable(0, 0, 7, 0));
+    assertNull(navigator.path(0, 0, 7, 5));
+    assertNull(navigator.path(0, 0, 1, 1));
+    assertTrue(navigator.isReachable(7, 0, 7, 5));
+  }
+
+  @Test
+  void nearestBucketCountsStepsAroundWalls() {
+    Navigator navigator = grid.getNavigator();
+    assertArrayEquals(new int[] {3, 4}, navigator.nearestBucket(5, 0));
+    assertNull(navigator.nearestBucket(7, 0));
+    grid.takePaint(3, 4);
+    assertNull(navigator.nearestBucket(5, 0));
+  }
+
+  @Test
+  void rebuildingSquaresDropsTheNavigator() {
+    Navigator navigator = grid.getNavigator();
+    assertSame(navigator, grid.getNavigator());
+    grid.initSquare(6, 1, 1, 0, 0);
+    assertNotSame(navigator, grid.getNavigator());
+    assertTrue(grid.getNavigator().isReachable(0, 0, 7, 0));
+  }
+
+  @Test
+  void invalidTargetsDoNotReplaceCachedFields() {
+    Navigator navigator = grid.getNavigator();
+    navigator.distancesTo(7, 0);
+    // -1 + 1 * 8 is the key of (7, 0)
+    Navigator.DistanceField wall = navigator.distancesTo(-1, 1);
+    assertEquals(-1, wall.getDistance(-1, 1));
+    assertEquals(-1, navigator.distancesTo(4, 0).getDistance(3, 0));
+    assertEquals(7, navigator.distancesTo(7, 0).getTargetX());
+    assertNotNull(navigator.path(7, 4, 7, 0));
+  }
+}
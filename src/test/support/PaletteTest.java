@@ -0,0 +1,69 @@
+package org.code.neighborhood.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import org.junit.jupiter.api.Test;
+
+public class PaletteTest {
+
+  @Test
+  void namesAreFoundInAnyCase() {
+    assertSame(Color.RED, ColorHelpers.fromName("red"));
+    assertSame(Color.RED, ColorHelpers.fromName("Red"));
+    assertSame(Color.MAGENTA, ColorHelpers.fromName("MAGENTA"));
+    assertSame(Color.YELLOW, ColorHelpers.fromName("yElLoW"));
+    assertNull(ColorHelpers.fromName("redd"));
+    assertNull(ColorHelpers.fromName("purple"));
+    assertNull(ColorHelpers.fromName(""));
+    assertNull(ColorHelpers.fromName(null));
+  }
+
+  @Test
+  void hexAndRgbStringsAreParsed() {
+    assertEquals(new Color(0xFF, 0x88, 0x00), ColorHelpers.fromName("#FF8800"));
+    assertEquals(new Color(0xFF, 0x88, 0x00), ColorHelpers.fromName("#f80"));
+    assertEquals(new Color(255, 136, 0), ColorHelpers.fromName("rgb(255, 136, 0)"));
+    assertEquals(new Color(1, 2, 3), ColorHelpers.fromName("RGB(1,2,3)"));
+    assertSame(Color.BLUE, ColorHelpers.fromName("#0000ff"));
+    assertNull(ColorHelpers.fromName("#GG0000"));
+    assertNull(ColorHelpers.fromName("#FF88"));
+    assertNull(ColorHelpers.fromName("rgb(256, 0, 0)"));
+    assertNull(ColorHelpers.fromName("rgb(1, 2)"));
+    assertNull(ColorHelpers.fromName("rgb(1, 2, 3"));
+  }
+
+  @Test
+  void paletteKeepsOneColorPerValue() {
+    int argb = 0xFF123456;
+    int index = Palette.indexOf(argb);
+    assertEquals(index, Palette.indexOf(argb));
+    assertEquals(argb, Palette.colorOf(argb).getRGB());
+    if (index > 0) {
+      assertSame(Palette.color(index), Palette.colorOf(argb));
+    }
+    assertSame(Color.GREEN, ColorHelpers.fromArgb(Color.GREEN.getRGB()));
+    assertEquals(0, Palette.indexOf(Grid.NO_COLOR));
+    assertNull(Palette.colorOf(Grid.NO_COLOR));
+  }
+
+  @Test
+  void paletteStopsGrowingWhenFull() {
+    for (int rgb = 0; rgb < Palette.MAX_COLORS + 10; rgb++) {
+      Palette.indexOf(0xFF000000 | (rgb * 7919));
+    }
+    assertEquals(Palette.MAX_COLORS, Palette.size());
+    int argb = 0xFFABCDEF;
+    if (Palette.indexOf(argb) < 0) {
+      assertEquals(argb, Palette.colorOf(argb).getRGB());
+    }
+  }
+
+  @Test
+  void gridsReportPaletteIndices() {
+    Grid grid = new GridFactory().createEmptyGrid(2);
+    grid.setColor(1, 0, Color.RED.getRGB());
+    assertEquals(0, grid.getPaletteIndex(0, 0));
+    assertSame(Color.RED, Palette.color(grid.getPaletteIndex(1, 0)));
+  }
+}
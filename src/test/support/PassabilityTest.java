@@ -0,0 +1,71 @@
+package org.code.neighborhood.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class PassabilityTest {
+  // A 70 x 70 grid, so that rows straddle 64-bit words, with walls at the given {x, y} positions
+  private Grid newGrid(GridStorage storage, int[]... walls) {
+    Grid grid = new Grid(70, 70, storage);
+    for (int y = 0; y < 70; y++) {
+      for (int x = 0; x < 70; x++) {
+        grid.initSquare(x, y, 1, 0, 0);
+      }
+    }
+    for (int[] wall : walls) {
+      grid.initSquare(wall[0], wall[1], 0, 0, 0);
+    }
+    return grid;
+  }
+
+  @Test
+  void edgesOfTheGridAreClosed() {
+    Grid grid = newGrid(new ArrayGridStorage(70, 70));
+    assertFalse(grid.canMove(0, 0, Direction.NORTH));
+    assertFalse(grid.canMove(0, 0, Direction.WEST));
+    assertTrue(grid.canMove(0, 0, Direction.EAST));
+    assertTrue(grid.canMove(0, 0, Direction.SOUTH));
+    assertFalse(grid.canMove(69, 69, Direction.EAST));
+    assertFalse(grid.canMove(69, 69, Direction.SOUTH));
+    assertFalse(grid.canMove(-1, 0, Direction.EAST));
+    assertFalse(grid.canMove(70, 0, Direction.WEST));
+  }
+
+  @Test
+  void wallsAcrossWordEdgesAreClosed() {
+    for (GridStorage storage :
+        new GridStorage[] {new ArrayGridStorage(70, 70), new ChunkedGridStorage(70, 70)}) {
+      Grid grid = newGrid(storage, new int[] {64, 10}, new int[] {10, 63});
+      assertFalse(grid.canMove(63, 10, Direction.EAST));
+      assertFalse(grid.canMove(65, 10, Direction.WEST));
+      assertTrue(grid.canMove(64, 11, Direction.WEST));
+      assertFalse(grid.canMove(10, 64, Direction.NORTH));
+      assertFalse(grid.canMove(10, 62, Direction.SOUTH));
+      assertFalse(grid.validLocation(64, 10));
+      assertTrue(grid.validLocation(63, 10));
+      // Open to the north, south and west
+      assertEquals(0b1101, grid.moves(63, 10));
+    }
+  }
+
+  @Test
+  void rebuildingSquaresUpdatesPassability() {
+    Grid grid = newGrid(new ArrayGridStorage(70, 70));
+    assertTrue(grid.canMove(4, 5, Direction.EAST));
+    grid.initSquare(5, 5, 0, 0, 0);
+    assertFalse(grid.canMove(4, 5, Direction.EAST));
+    assertFalse(grid.validLocation(5, 5));
+  }
+
+  @Test
+  void gridsTooLargeToPackCheckTheirStorage() {
+    // Chunked storage starts out with every square open
+    Grid grid = new Grid(1100, 1000);
+    grid.initSquare(500, 500, 0, 0, 0);
+    assertFalse(grid.canMove(499, 500, Direction.EAST));
+    assertTrue(grid.canMove(499, 500, Direction.WEST));
+    assertFalse(grid.validLocation(500, 500));
+    assertEquals(0b0110, grid.moves(0, 0));
+  }
+}
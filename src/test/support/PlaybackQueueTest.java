@@ -0,0 +1,113 @@
+package org.code.neighborhood.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import org.junit.jupiter.api.Test;
+
+public class PlaybackQueueTest {
+
+  @Test
+  void displayLagsBehindTheModelUntilPlayed() {
+    Grid grid = new GridFactory().createEmptyGrid(3);
+    PlaybackQueue playback = new PlaybackQueue(grid);
+    int slot = playback.addPainter(0, 0, Direction.EAST);
+
+    grid.getSquare(1, 0).setColor(Color.RED);
+    playback.record(slot, 1, 0, Direction.EAST, false);
+    playback.record(slot, 1, 0, Direction.EAST, true);
+
+    assertEquals(3, playback.pending());
+    assertFalse(playback.isPainterVisible(slot));
+    assertFalse(playback.getDisplayGrid().getSquare(1, 0).hasColor());
+
+    assertTrue(playback.playNext());
+    assertTrue(playback.isPainterVisible(slot));
+    assertEquals(0, playback.painterX(slot));
+
+    assertTrue(playback.playNext());
+    assertEquals(1, playback.painterX(slot));
+    assertFalse(playback.getDisplayGrid().getSquare(1, 0).hasColor());
+
+    assertTrue(playback.playNext());
+    assertEquals(Color.RED, playback.getDisplayGrid().getSquare(1, 0).getColor());
+    assertFalse(playback.playNext());
+  }
+
+  @Test
+  void squaresAreRecordedAsTheyWereWhenQueued() {
+    Grid grid = new GridFactory().createEmptyGrid(2);
+    PlaybackQueue playback = new PlaybackQueue(grid);
+    int slot = playback.addPainter(0, 0, Direction.SOUTH);
+
+    grid.getSquare(0, 0).setColor(Color.BLUE);
+    playback.record(slot, 0, 0, Direction.SOUTH, true);
+    grid.getSquare(0, 0).removePaint();
+    playback.record(slot, 0, 0, Direction.SOUTH, true);
+
+    playback.playNext();
+    playback.playNext();
+    assertEquals(Color.BLUE, playback.getDisplayGrid().getSquare(0, 0).getColor());
+    playback.playAll();
+    assertFalse(playback.getDisplayGrid().getSquare(0, 0).hasColor());
+  }
+
+  @Test
+  void queueGrowsPastItsInitialCapacity() {
+    Grid grid = new GridFactory().createEmptyGrid(2);
+    PlaybackQueue playback = new PlaybackQueue(grid);
+    int slot = playback.addPainter(0, 0, Direction.NORTH);
+    Direction direction = Direction.NORTH;
+    for (int i = 0; i < 1000; i++) {
+      direction = direction.turnLeft();
+      playback.record(slot, 0, 0, direction, false);
+      if (i % 3 == 0) {
+        playback.playNext();
+      }
+    }
+    playback.playAll();
+    assertEquals(0, playback.pending());
+    assertEquals(direction, playback.painterDirection(slot));
+  }
+
+  @Test
+  void spansArePlayedAsOneStep() {
+    Grid grid = new GridFactory().createEmptyGrid(4);
+    PlaybackQueue playback = new PlaybackQueue(grid);
+    int slot = playback.addPainter(0, 0, Direction.EAST);
+    int[] spans = {0, 0, 3, 1, 0, 3};
+    grid.paintSpans(spans, Color.RED.getRGB());
+    playback.recordSpans(slot, 3, 1, Direction.EAST, Color.RED.getRGB(), spans);
+
+    assertEquals(2, playback.pending());
+    playback.playNext();
+    assertFalse(playback.getDisplayGrid().getSquare(3, 1).hasColor());
+    assertTrue(playback.playNext());
+    assertEquals(3, playback.painterX(slot));
+    assertEquals(Color.RED, playback.getDisplayGrid().getSquare(3, 1).getColor());
+    assertEquals(Color.RED, playback.getDisplayGrid().getSquare(0, 0).getColor());
+    assertFalse(playback.getDisplayGrid().getSquare(0, 2).hasColor());
+    assertFalse(playback.playNext());
+  }
+
+  @Test
+  void recordingWaitsWhileTheQueueIsFull() throws InterruptedException {
+    Grid grid = new GridFactory().createEmptyGrid(2);
+    PlaybackQueue playback = new PlaybackQueue(grid, 4);
+    int slot = playback.addPainter(0, 0, Direction.NORTH);
+    Thread painter = new Thread(() -> {
+      for (int i = 0; i < 20; i++) {
+        playback.record(slot, 0, 0, Direction.NORTH, false);
+      }
+    });
+    painter.start();
+    int played = 0;
+    while (painter.isAlive() || playback.pending() > 0) {
+      assertTrue(playback.pending() <= 4);
+      if (playback.playNext()) {
+        played++;
+      }
+    }
+    assertEquals(21, played);
+  }
+}
@@ -0,0 +1,29 @@
+package org.code.neighborhood.support;
+
+import java.util.function.Consumer;
+
+// Traces shared by the tests of recording, replaying and exporting runs
+public final class TraceFixtures {
+  private TraceFixtures() {}
+
+  // Returns the trace recorded from whatever actions logs to a fresh EventLog
+  public static Trace record(Consumer<EventLog> actions) {
+    EventLog log = new EventLog();
+    TraceRecorder recorder = TraceRecorder.start(log);
+    actions.accept(log);
+    return recorder.stop();
+  }
+
+  // Logs painter 7 being made on (0, 0) facing east and asking a question, which traces leave
+  // out, then walking east along the top row and painting square x with colors[x % colors.length]
+  // as it enters it
+  public static void logWalk(EventLog log, int squares, int... colors) {
+    log.log(7, PainterEvent.Kind.CREATE, 0, 0, Direction.EAST, 0, squares, false);
+    log.log(7, PainterEvent.Kind.IS_ON_PAINT, 0, 0, Direction.EAST, 0, squares, false);
+    for (int x = 1; x <= squares; x++) {
+      log.log(7, PainterEvent.Kind.MOVE, x, 0, Direction.EAST, 0, squares - x + 1, false);
+      log.log(7, PainterEvent.Kind.PAINT, x, 0, Direction.EAST, colors[x % colors.length],
+          squares - x, false);
+    }
+  }
+}
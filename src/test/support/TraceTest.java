@@ -0,0 +1,151 @@
+package org.code.neighborhood.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.code.neighborhood.Painter;
+import org.junit.jupiter.api.Test;
+
+public class TraceTest {
+
+  private static final int RED = Color.RED.getRGB();
+  private static final int BLUE = Color.BLUE.getRGB();
+
+  // Records one painter walking east along the top row, painting every square it enters red or
+  // blue in turn
+  private Trace recordWalk(int squares) {
+    return TraceFixtures.record(log -> TraceFixtures.logWalk(log, squares, RED, BLUE));
+  }
+
+  @Test
+  void recorderKeepsOnlyActionsThatChangeTheWorld() {
+    Trace trace = recordWalk(3);
+    assertEquals(7, trace.size());
+    assertEquals(1, trace.getPainterCount());
+    assertEquals(0, trace.painter(0));
+    assertEquals(PainterEvent.Kind.MOVE, trace.kind(1));
+  }
+
+  @Test
+  void replayPaintsTheGridWithoutChangingTheOriginal() {
+    Grid grid = new GridFactory().createEmptyGrid(10);
+    TraceReplayer replayer = new TraceReplayer(grid, recordWalk(9));
+    replayer.runToEnd();
+    assertEquals(Color.BLUE, replayer.getGrid().getSquare(1, 0).getColor());
+    assertEquals(Color.RED, replayer.getGrid().getSquare(2, 0).getColor());
+    assertEquals(9, replayer.getPainterX(0));
+    assertEquals(0, replayer.getPainterPaint(0));
+    assertFalse(grid.getSquare(1, 0).hasColor());
+  }
+
+  @Test
+  void seekRestoresEarlierSteps() {
+    Grid grid = new GridFactory().createEmptyGrid(40);
+    TraceReplayer replayer = new TraceReplayer(grid, recordWalk(39), 8);
+    replayer.runToEnd();
+
+    replayer.seek(20);
+    assertEquals(20, replayer.getStep());
+    assertEquals(10, replayer.getPainterX(0));
+    assertTrue(replayer.getGrid().getSquare(9, 0).hasColor());
+    assertFalse(replayer.getGrid().getSquare(10, 0).hasColor());
+
+    replayer.seek(0);
+    assertFalse(replayer.isPainterVisible(0));
+    assertFalse(replayer.getGrid().getSquare(1, 0).hasColor());
+
+    replayer.seek(replayer.size());
+    assertTrue(replayer.getGrid().getSquare(39, 0).hasColor());
+  }
+
+  @Test
+  void traceSurvivesWritingToAFile() throws IOException {
+    Trace trace = recordWalk(5);
+    Path file = Files.createTempFile("trace", ".nbtrace");
+    try {
+      trace.write(file);
+      Trace read = Trace.read(file);
+      assertEquals(trace.size(), read.size());
+      assertEquals(trace.getPainterCount(), read.getPainterCount());
+      for (int step = 0; step < trace.size(); step++) {
+        assertEquals(trace.kind(step), read.kind(step));
+        assertEquals(trace.x(step), read.x(step));
+        assertEquals(trace.color(step), read.color(step));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void readRejectsStepsForPaintersTheTraceDoesNotHave() throws IOException {
+    Path file = Files.createTempFile("trace", ".nbtrace");
+    try {
+      recordWalk(2).write(file);
+      // Give the first step painter 1 of a one painter trace
+      ByteBuffer step = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN)
+          .putInt(1 << 8 | PainterEvent.Kind.CREATE.ordinal() << 2);
+      step.flip();
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        channel.write(step, 16);
+      }
+      assertThrows(IOException.class, () -> Trace.read(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void worldRecorderSeesPaintersThatDoNotLog() {
+    World world = new World(5);
+    World.setCurrent(world);
+    try {
+      world.setLogging(false);
+      TraceRecorder recorder = TraceRecorder.start(world);
+      Painter painter = new Painter(0, 0, "east", 10);
+      painter.paint("red");
+      painter.move();
+      painter.paint("blue");
+      Trace trace = recorder.stop();
+      painter.move();
+      assertEquals(4, trace.size());
+      assertEquals(PainterEvent.Kind.CREATE, trace.kind(0));
+      assertEquals(PainterEvent.Kind.MOVE, trace.kind(2));
+      assertEquals(1, trace.x(3));
+      assertNull(world.getRecorder());
+    } finally {
+      World.setCurrent(null);
+    }
+  }
+
+  @Test
+  void replayPaintsBulkActions() {
+    Trace trace = TraceFixtures.record(log -> {
+      log.log(7, PainterEvent.Kind.CREATE, 1, 1, Direction.EAST, 0, 20, false);
+      log.log(7, PainterEvent.Kind.PAINT_RECT, 3, 2, Direction.EAST, RED, 14, false);
+      log.log(7, PainterEvent.Kind.PAINT_LINE, 3, 4, Direction.SOUTH, BLUE, 11, false);
+      log.log(7, PainterEvent.Kind.FILL, 3, 4, Direction.SOUTH, RED, 10, false);
+    });
+    assertEquals(4, trace.size());
+
+    TraceReplayer replayer = new TraceReplayer(new GridFactory().createEmptyGrid(5), trace);
+    replayer.runToEnd();
+    Grid grid = replayer.getGrid();
+    assertEquals(Color.RED, grid.getSquare(1, 1).getColor());
+    assertEquals(Color.RED, grid.getSquare(2, 2).getColor());
+    assertFalse(grid.getSquare(1, 3).hasColor());
+    // The fill from (3, 4) repainted the blue line from (3, 2) down to (3, 4), and nothing else
+    assertEquals(Color.RED, grid.getSquare(3, 3).getColor());
+    assertEquals(Color.RED, grid.getSquare(3, 4).getColor());
+    assertFalse(grid.getSquare(4, 4).hasColor());
+    assertEquals(3, replayer.getPainterX(0));
+    assertEquals(4, replayer.getPainterY(0));
+  }
+}
@@ -0,0 +1,66 @@
+package org.code.neighborhood.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class WorldRegistryTest {
+  String singleSquareGrid = "[[{\"tileType\": 1, \"assetId\": 0}]]";
+  String multiSquareGrid =
+      "[[{\"tileType\": 1, \"assetId\": 0}, {\"tileType\": 1, \"assetId\": 0}], \n[{\"tileType\": 1, \"assetId\": 0}, {\"tileType\": 1, \"assetId\": 0}]]";
+  Path mapFile;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    WorldRegistry.clear();
+    mapFile = Files.createTempFile("map", ".json");
+    Files.writeString(mapFile, singleSquareGrid);
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    WorldRegistry.clear();
+    Files.deleteIfExists(mapFile);
+  }
+
+  @Test
+  void samePathReturnsSharedWorld() {
+    World first = WorldRegistry.getWorld(mapFile.toString());
+    World second = WorldRegistry.getWorld(mapFile.toAbsolutePath().toString());
+    assertSame(first, second);
+    assertSame(first.getGrid(), second.getGrid());
+  }
+
+  @Test
+  void changedFileIsReparsed() throws IOException {
+    World first = WorldRegistry.getWorld(mapFile.toString());
+    assertEquals(1, first.getGrid().getSize());
+    Files.writeString(mapFile, multiSquareGrid);
+    Files.setLastModifiedTime(mapFile, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+    World second = WorldRegistry.getWorld(mapFile.toString());
+    assertNotSame(first, second);
+    assertEquals(2, second.getGrid().getSize());
+  }
+
+  @Test
+  void resetHandsOutUnpaintedWorld() {
+    World first = WorldRegistry.getWorld(mapFile.toString());
+    first.getGrid().getSquare(0, 0).setColor(Color.RED);
+    WorldRegistry.reset();
+    World second = WorldRegistry.getWorld(mapFile.toString());
+    assertNotSame(first, second);
+    assertFalse(second.getGrid().getSquare(0, 0).hasColor());
+  }
+
+  @Test
+  void missingFileThrowsException() {
+    assertThrows(RuntimeException.class, () -> WorldRegistry.getWorld("does/not/exist.json"));
+  }
+}